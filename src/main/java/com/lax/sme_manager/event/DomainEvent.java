@@ -0,0 +1,73 @@
+package com.lax.sme_manager.event;
+
+import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.VendorEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Change events published on the {@link EventBus} after a write has been
+ * committed. Listeners patch their in-memory state instead of re-querying.
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * A purchase was inserted (created = true) or updated.
+     */
+    record PurchaseSaved(PurchaseEntity purchase, boolean created) implements DomainEvent {
+    }
+
+    /**
+     * Purchases were soft-deleted (moved to the recycle bin).
+     */
+    record PurchaseDeleted(List<Integer> ids) implements DomainEvent {
+        public PurchaseDeleted {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    /**
+     * Purchases came back from the recycle bin or the archive.
+     */
+    record PurchaseRestored(List<Integer> ids) implements DomainEvent {
+        public PurchaseRestored {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    /**
+     * The status column of the given purchases was set to status.
+     */
+    record StatusChanged(List<Integer> ids, String status) implements DomainEvent {
+        public StatusChanged {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    /**
+     * Cheques were printed for these purchases: status set to PAID with each
+     * row's cheque number and date.
+     */
+    record ChequesIssued(List<Cheque> cheques) implements DomainEvent {
+        public ChequesIssued {
+            cheques = List.copyOf(cheques);
+        }
+
+        public List<Integer> ids() {
+            return cheques.stream().map(Cheque::purchaseId).toList();
+        }
+
+        public record Cheque(int purchaseId, String chequeNumber, LocalDate chequeDate) {
+        }
+    }
+
+    /**
+     * Purchases dated before beforeDate were moved to the archive.
+     */
+    record PurchasesArchived(LocalDate beforeDate, int count) implements DomainEvent {
+    }
+
+    record VendorCreated(VendorEntity vendor) implements DomainEvent {
+    }
+}
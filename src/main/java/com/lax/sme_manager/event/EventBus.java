@@ -0,0 +1,77 @@
+package com.lax.sme_manager.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe for {@link DomainEvent}s.
+ * - Repositories publish after their write has committed
+ * - Handlers run synchronously on the publishing thread (usually a background
+ * thread): UI code must hop to the FX thread itself
+ * - A handler subscribed to a supertype (e.g. DomainEvent) receives every
+ * matching event
+ * - A failing handler is logged and does not affect the publisher or other
+ * handlers
+ */
+public final class EventBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventBus.class);
+
+    private static final List<Subscription<?>> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    private EventBus() {
+    }
+
+    /**
+     * Subscribe for the lifetime of the application. Returns a handle that
+     * unsubscribes when run.
+     */
+    public static <E extends DomainEvent> Runnable subscribe(Class<E> type, Consumer<? super E> handler) {
+        Subscription<E> subscription = new Subscription<>(type, handler, null);
+        SUBSCRIPTIONS.add(subscription);
+        return () -> SUBSCRIPTIONS.remove(subscription);
+    }
+
+    /**
+     * Subscribe without keeping the handler alive: for objects that are
+     * recreated with their view (view models). The caller must hold a strong
+     * reference to the handler; once it is collected the subscription lapses.
+     */
+    public static <E extends DomainEvent> void subscribeWeak(Class<E> type, Consumer<? super E> handler) {
+        SUBSCRIPTIONS.add(new Subscription<>(type, null, new WeakReference<>(handler)));
+    }
+
+    public static void publish(DomainEvent event) {
+        for (Subscription<?> subscription : SUBSCRIPTIONS) {
+            if (!subscription.deliver(event)) {
+                SUBSCRIPTIONS.remove(subscription);
+            }
+        }
+    }
+
+    private record Subscription<E extends DomainEvent>(Class<E> type, Consumer<? super E> handler,
+            WeakReference<Consumer<? super E>> weakHandler) {
+
+        /**
+         * @return false if this is a weak subscription whose handler is gone
+         */
+        boolean deliver(DomainEvent event) {
+            Consumer<? super E> target = handler != null ? handler : weakHandler.get();
+            if (target == null) {
+                return false;
+            }
+            if (type.isInstance(event)) {
+                try {
+                    target.accept(type.cast(event));
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Event handler failed for {}", event.getClass().getSimpleName(), e);
+                }
+            }
+            return true;
+        }
+    }
+}
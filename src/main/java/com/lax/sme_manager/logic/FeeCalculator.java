@@ -6,6 +6,10 @@ import java.math.RoundingMode;
 /**
  * Pure business logic for Fee and Amount calculations.
  * Stateless and unit-testable.
+ * - BigDecimal methods work in rupees
+ * - The *Paise methods are the same formulas on longs: amounts and rates in
+ * paise, weight in grams, percentages in hundredths of a percent (0.70% = 70).
+ * They reproduce the BigDecimal HALF_UP rounding (6 places, then 2) exactly.
  */
 public class FeeCalculator {
 
@@ -58,4 +62,101 @@ public class FeeCalculator {
             total = total.add(commission);
         return total.setScale(2, RoundingMode.HALF_UP);
     }
+
+    // --- Fixed-point (long) path ---
+
+    /**
+     * Base, fees and total of one entry, in paise.
+     */
+    public record PaiseBreakdown(long base, long marketFee, long commission, long grandTotal) {
+    }
+
+    /**
+     * Base amount in paise. Lumpsum: bags * rate. Weight-based: weight * rate / 20,
+     * rounded to 6 places of a rupee and then to paise like calculateBaseAmount.
+     */
+    public static long calculateBaseAmountPaise(boolean isLumpsum, int bags, long weightGrams, long ratePaise) {
+        if (ratePaise == 0) {
+            return 0;
+        }
+        if (isLumpsum) {
+            return Math.multiplyExact((long) bags, ratePaise);
+        }
+        // grams * paise is in 1e-5 rupee-kg; / 20 -> rupees * 1e-6 needs / 2
+        long micros = divideHalfUp(Math.multiplyExact(weightGrams, ratePaise), 2);
+        return divideHalfUp(micros, 10_000);
+    }
+
+    /**
+     * Fee in paise: base * percent / 100. paise * hundredths-of-a-percent is
+     * already exact in millionths of a rupee.
+     */
+    public static long calculateFeePaise(long basePaise, long percentHundredths) {
+        return divideHalfUp(Math.multiplyExact(basePaise, percentHundredths), 10_000);
+    }
+
+    public static long calculateGrandTotalPaise(long basePaise, long marketFeePaise, long commissionPaise) {
+        return Math.addExact(Math.addExact(basePaise, marketFeePaise), commissionPaise);
+    }
+
+    /**
+     * Full breakdown for form input. Uses the long path when every input fits
+     * its fixed-point unit exactly (rate/percent 2 places, weight 3); otherwise
+     * falls back to the BigDecimal methods so the result is identical.
+     */
+    public static PaiseBreakdown calculatePaise(boolean isLumpsum, int bags, BigDecimal weight, BigDecimal rate,
+            BigDecimal marketFeePercent, BigDecimal commissionPercent) {
+        BigDecimal w = weight != null ? weight : BigDecimal.ZERO;
+        BigDecimal r = rate != null ? rate : BigDecimal.ZERO;
+        BigDecimal m = marketFeePercent != null ? marketFeePercent : BigDecimal.ZERO;
+        BigDecimal c = commissionPercent != null ? commissionPercent : BigDecimal.ZERO;
+
+        if (fits(w, 3) && fits(r, 2) && fits(m, 2) && fits(c, 2)) {
+            long base = calculateBaseAmountPaise(isLumpsum, bags, toFixed(w, 3), toFixed(r, 2));
+            long marketFee = calculateFeePaise(base, toFixed(m, 2));
+            long commission = calculateFeePaise(base, toFixed(c, 2));
+            return new PaiseBreakdown(base, marketFee, commission,
+                    calculateGrandTotalPaise(base, marketFee, commission));
+        }
+
+        BigDecimal base = calculateBaseAmount(isLumpsum, bags, w, r);
+        BigDecimal marketFee = calculateFee(base, m);
+        BigDecimal commission = calculateFee(base, c);
+        return new PaiseBreakdown(toPaise(base), toPaise(marketFee), toPaise(commission),
+                toPaise(calculateGrandTotal(base, marketFee, commission)));
+    }
+
+    /**
+     * Rupees to paise, HALF_UP.
+     */
+    public static long toPaise(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0;
+        }
+        return rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static boolean fits(BigDecimal value, int scale) {
+        return value.scale() <= scale || value.stripTrailingZeros().scale() <= scale;
+    }
+
+    private static long toFixed(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * num / den rounded HALF_UP (ties away from zero, like BigDecimal). den > 0.
+     */
+    private static long divideHalfUp(long num, long den) {
+        long quotient = num / den;
+        long remainder = num % den;
+        if (Math.abs(remainder) * 2 >= den) {
+            quotient += Long.signum(num);
+        }
+        return quotient;
+    }
 }
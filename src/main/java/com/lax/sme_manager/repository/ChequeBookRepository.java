@@ -17,7 +17,7 @@ public class ChequeBookRepository {
         List<ChequeBook> books = new ArrayList<>();
         String sql = "SELECT * FROM cheque_books ORDER BY id DESC";
 
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -33,7 +33,7 @@ public class ChequeBookRepository {
     public ChequeBook getActiveBook() {
         String sql = "SELECT * FROM cheque_books WHERE is_active = 1 LIMIT 1";
 
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -48,7 +48,7 @@ public class ChequeBookRepository {
 
     public ChequeBook getBookById(int id) {
         String sql = "SELECT * FROM cheque_books WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -208,21 +208,21 @@ public class ChequeBookRepository {
                 java.util.List<Long> toConsume = new java.util.ArrayList<>();
                 long candidate = startNum;
 
-                while (toConsume.size() < count && candidate <= endNum) {
-                    boolean isBlocked = false;
-                    try (PreparedStatement checkStmt = conn.prepareStatement(logCheckSql)) {
-                        checkStmt.setInt(1, bookId);
+                try (PreparedStatement checkStmt = conn.prepareStatement(logCheckSql)) {
+                    checkStmt.setInt(1, bookId);
+                    while (toConsume.size() < count && candidate <= endNum) {
+                        boolean isBlocked = false;
                         checkStmt.setLong(2, candidate);
                         try (ResultSet rs = checkStmt.executeQuery()) {
                             if (rs.next())
                                 isBlocked = true;
                         }
-                    }
 
-                    if (!isBlocked) {
-                        toConsume.add(candidate);
+                        if (!isBlocked) {
+                            toConsume.add(candidate);
+                        }
+                        candidate++;
                     }
-                    candidate++;
                 }
 
                 if (toConsume.size() < count) {
@@ -289,7 +289,7 @@ public class ChequeBookRepository {
         }
         sb.append(") ORDER BY leaf_number ASC");
 
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sb.toString())) {
             pstmt.setInt(1, bookId);
             for (int i = 0; i < statuses.size(); i++) {
@@ -16,7 +16,7 @@ public class ChequeConfigRepository {
     // We assume ID=1 is the single config for now
     public ChequeConfig getConfig() {
         String sql = "SELECT * FROM cheque_config WHERE id = 1";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             ResultSet rs = pstmt.executeQuery();
@@ -101,7 +101,7 @@ public class ChequeConfigRepository {
 
     public ChequeConfig getConfigByBank(String bankName) {
         String sql = "SELECT * FROM bank_templates WHERE bank_name = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, bankName);
             ResultSet rs = pstmt.executeQuery();
@@ -117,7 +117,7 @@ public class ChequeConfigRepository {
     public java.util.List<String> getAllBankNames() {
         java.util.List<String> banks = new java.util.ArrayList<>();
         String sql = "SELECT bank_name FROM bank_templates ORDER BY bank_name";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql);
                 ResultSet rs = stmt.executeQuery()) {
             while (rs.next())
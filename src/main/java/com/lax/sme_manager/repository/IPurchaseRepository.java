@@ -1,9 +1,13 @@
 package com.lax.sme_manager.repository;
 
+import com.lax.sme_manager.repository.model.DashboardTotals;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchasePage;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 /**
  * IPurchaseRepository - Repository interface for Purchase operations
@@ -74,9 +78,23 @@ public interface IPurchaseRepository {
      */
     Integer countChequesByClearingDate(LocalDate date);
 
-    List<PurchaseEntity> findByVendorAndStatus(Integer vendorId, String status);
+    /**
+     * All scalar dashboard KPIs in one round trip. The default composes the
+     * single-metric queries above.
+     */
+    default DashboardTotals getDashboardTotals(LocalDate today, LocalDate startOfWeek, LocalDate endOfWeek,
+            LocalDate startOfMonth, LocalDate endOfMonth) {
+        return new DashboardTotals(
+                getBagsCount(today, today),
+                getBagsCount(startOfWeek, endOfWeek),
+                getBagsCount(startOfMonth, endOfMonth),
+                getTotalAmount(startOfMonth, endOfMonth),
+                countPendingCheques(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 12, 31)),
+                countChequesByClearingDate(today),
+                countPendingClearing());
+    }
 
-    int getLastInsertedId();
+    List<PurchaseEntity> findByVendorAndStatus(Integer vendorId, String status);
 
     void delete(Integer id);
 
@@ -92,6 +110,32 @@ public interface IPurchaseRepository {
 
     void updateStatus(Integer id, String status);
 
+    /**
+     * Soft-delete all ids in one set-based statement / transaction.
+     *
+     * @return rows affected
+     */
+    default int softDeleteAll(List<Integer> ids) {
+        ids.forEach(this::delete);
+        return ids.size();
+    }
+
+    /**
+     * Restore all ids from the recycle bin in one statement / transaction.
+     */
+    default int restoreAll(List<Integer> ids) {
+        ids.forEach(this::restore);
+        return ids.size();
+    }
+
+    /**
+     * Set the status of all ids in one statement / transaction.
+     */
+    default int updateStatusAll(List<Integer> ids, String status) {
+        ids.forEach(id -> updateStatus(id, status));
+        return ids.size();
+    }
+
     Integer countPendingClearing();
 
     /**
@@ -99,23 +143,87 @@ public interface IPurchaseRepository {
      */
     int archiveOldData(LocalDate beforeDate);
 
+    /**
+     * Archive in chunks of chunkSize rows, each its own short transaction.
+     * progress is called after every chunk; cancelled is checked between chunks.
+     */
+    default int archiveOldData(LocalDate beforeDate, int chunkSize, ArchiveProgress progress,
+            BooleanSupplier cancelled) {
+        return archiveOldData(beforeDate);
+    }
+
+    @FunctionalInterface
+    interface ArchiveProgress {
+        void onProgress(int archived, int total);
+    }
+
     /**
      * Retrieve all archived records
      */
     List<PurchaseEntity> findAllArchived();
 
+    /**
+     * Number of archived records
+     */
+    default int countArchived() {
+        return findAllArchived().size();
+    }
+
     /**
      * Restore a record from archive to active table
      */
     boolean restoreFromArchive(Integer id);
 
     /**
-     * Fetch purchases with database-level filtering and pagination
+     * Stream all purchases straight off the database cursor, fetchSize rows at a
+     * time. The stream holds a read connection: close it (try-with-resources).
+     */
+    default Stream<PurchaseEntity> streamAll(int fetchSize) {
+        return findAll().stream();
+    }
+
+    /**
+     * Streaming variant of findByDateRange for exports and reports; heap use
+     * doesn't grow with the range. Must be closed.
+     */
+    default Stream<PurchaseEntity> streamByDateRange(LocalDate startDate, LocalDate endDate, int fetchSize) {
+        return findByDateRange(startDate, endDate).stream();
+    }
+
+    /**
+     * Streaming variant of findAllArchived. Must be closed.
+     */
+    default Stream<PurchaseEntity> streamAllArchived(int fetchSize) {
+        return findAllArchived().stream();
+    }
+
+    /**
+     * streamByDateRange over live and archived purchases, for reports that
+     * span periods already archived. Must be closed.
+     */
+    default Stream<PurchaseEntity> streamByDateRangeAllPeriods(LocalDate startDate, LocalDate endDate, int fetchSize) {
+        return streamByDateRange(startDate, endDate, fetchSize);
+    }
+
+    /**
+     * Whether any live or archived purchase falls in the range, without
+     * reading the rows.
+     */
+    default boolean existsByDateRangeAllPeriods(LocalDate startDate, LocalDate endDate) {
+        try (Stream<PurchaseEntity> purchases = streamByDateRangeAllPeriods(startDate, endDate, 1)) {
+            return purchases.findAny().isPresent();
+        }
+    }
+
+    /**
+     * Fetch one page of purchases with database-level filtering and keyset
+     * pagination. cursor == null gives the first page; otherwise the page after
+     * the cursor, or before it when backward is true.
      */
-    List<PurchaseEntity> findFilteredPurchases(
+    PurchasePage findFilteredPurchases(
             LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
             java.math.BigDecimal minAmount, java.math.BigDecimal maxAmount, Boolean chequeIssued,
-            String searchQuery, int limit, int offset);
+            String searchQuery, String cursor, boolean backward, int limit);
 
     /**
      * Get total count of filtered purchases
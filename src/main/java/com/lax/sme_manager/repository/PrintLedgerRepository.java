@@ -8,44 +8,53 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class PrintLedgerRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(PrintLedgerRepository.class);
 
-    public void logPrint(PrintLedgerEntry entry) {
-        String sql = "INSERT INTO cheque_print_ledger (user_id, payee_name, amount, cheque_number, print_status, remarks, printed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    static final String ALL_LOGS_SQL = """
+                SELECT l.*, u.username
+                FROM cheque_print_ledger l
+                LEFT JOIN users u ON l.user_id = u.id
+                ORDER BY l.printed_at DESC
+            """;
 
-            if (entry.getUserId() != null)
-                pstmt.setInt(1, entry.getUserId());
-            else
-                pstmt.setNull(1, Types.INTEGER);
+    /**
+     * Queue an audit entry on the database writer. Entries logged for a batch
+     * of cheques are committed together.
+     */
+    public CompletableFuture<Void> logPrint(PrintLedgerEntry entry) {
+        String sql = "INSERT INTO cheque_print_ledger (user_id, payee_name, amount, cheque_number, print_status, remarks, printed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        return DatabaseManager.<Void>submitWrite(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                if (entry.getUserId() != null)
+                    pstmt.setInt(1, entry.getUserId());
+                else
+                    pstmt.setNull(1, Types.INTEGER);
 
-            pstmt.setString(2, entry.getPayeeName());
-            pstmt.setDouble(3, entry.getAmount());
-            pstmt.setString(4, entry.getChequeNumber());
-            pstmt.setString(5, entry.getPrintStatus());
-            pstmt.setString(6, entry.getRemarks());
-            pstmt.setTimestamp(7, Timestamp.valueOf(java.time.LocalDateTime.now()));
+                pstmt.setString(2, entry.getPayeeName());
+                pstmt.setDouble(3, entry.getAmount());
+                pstmt.setString(4, entry.getChequeNumber());
+                pstmt.setString(5, entry.getPrintStatus());
+                pstmt.setString(6, entry.getRemarks());
+                pstmt.setTimestamp(7, Timestamp.valueOf(java.time.LocalDateTime.now()));
 
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            LOGGER.error("Failed to log print event", e);
-        }
+                pstmt.executeUpdate();
+            }
+            return null;
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                LOGGER.error("Failed to log print event", e);
+            }
+        });
     }
 
     public List<PrintLedgerEntry> getAllLogs() {
         List<PrintLedgerEntry> logs = new ArrayList<>();
-        String sql = """
-                    SELECT l.*, u.username
-                    FROM cheque_print_ledger l
-                    LEFT JOIN users u ON l.user_id = u.id
-                    ORDER BY l.printed_at DESC
-                """;
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(ALL_LOGS_SQL)) {
             while (rs.next()) {
                 logs.add(mapResultSet(rs));
             }
@@ -10,41 +10,52 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class PrintQueueRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(PrintQueueRepository.class);
 
-    public void addItem(PrintQueueItem item) {
+    static final String ALL_ITEMS_SQL = "SELECT * FROM cheque_print_queue ORDER BY created_at ASC";
+    static final String COUNT_ITEMS_SQL = "SELECT COUNT(*) FROM cheque_print_queue";
+
+    /**
+     * Queue the insert on the database writer. The future completes with the
+     * item (id filled in) once committed.
+     */
+    public CompletableFuture<PrintQueueItem> addItem(PrintQueueItem item) {
         String sql = "INSERT INTO cheque_print_queue (purchase_id, payee_name, amount, cheque_date, is_ac_payee) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            if (item.getPurchaseId() != null) {
-                pstmt.setInt(1, item.getPurchaseId());
-            } else {
-                pstmt.setNull(1, Types.INTEGER);
-            }
-            pstmt.setString(2, item.getPayeeName());
-            pstmt.setDouble(3, item.getAmount());
-            pstmt.setObject(4, item.getChequeDate());
-            pstmt.setBoolean(5, item.isAcPayee());
+        return DatabaseManager.submitWrite(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                if (item.getPurchaseId() != null) {
+                    pstmt.setInt(1, item.getPurchaseId());
+                } else {
+                    pstmt.setNull(1, Types.INTEGER);
+                }
+                pstmt.setString(2, item.getPayeeName());
+                pstmt.setDouble(3, item.getAmount());
+                pstmt.setObject(4, item.getChequeDate());
+                pstmt.setBoolean(5, item.isAcPayee());
 
-            pstmt.executeUpdate();
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    item.setId(generatedKeys.getInt(1));
+                pstmt.executeUpdate();
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        item.setId(generatedKeys.getInt(1));
+                    }
                 }
             }
-        } catch (SQLException e) {
-            LOGGER.error("Failed to add item to print queue", e);
-        }
+            return item;
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                LOGGER.error("Failed to add item to print queue", e);
+            }
+        });
     }
 
     public List<PrintQueueItem> getAllItems() {
         List<PrintQueueItem> items = new ArrayList<>();
-        String sql = "SELECT * FROM cheque_print_queue ORDER BY created_at ASC";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(ALL_ITEMS_SQL)) {
             while (rs.next()) {
                 items.add(mapResultSet(rs));
             }
@@ -91,10 +102,9 @@ public class PrintQueueRepository {
     }
 
     public int countItems() {
-        String sql = "SELECT COUNT(*) FROM cheque_print_queue";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(COUNT_ITEMS_SQL)) {
             if (rs.next()) {
                 return rs.getInt(1);
             }
@@ -1,6 +1,13 @@
 package com.lax.sme_manager.repository;
 
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
+import com.lax.sme_manager.logic.FeeCalculator;
+import com.lax.sme_manager.repository.model.DashboardTotals;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchaseHistoryRow;
+import com.lax.sme_manager.repository.model.PurchasePage;
+import com.lax.sme_manager.util.ArchiveDatabase;
 import com.lax.sme_manager.util.DatabaseManager;
 
 import java.math.BigDecimal;
@@ -11,6 +18,11 @@ import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +32,142 @@ import org.slf4j.LoggerFactory;
 public class PurchaseRepository implements IPurchaseRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(PurchaseRepository.class);
 
+    // Read queries are kept as constants so QueryPlanTest can check them against
+    // the schema indexes (see DatabaseMigrator V21)
+    static final String FIND_BY_ID_SQL = "SELECT * FROM purchase_entries WHERE id = ? AND is_deleted = 0";
+    static final String FIND_ALL_SQL = "SELECT * FROM purchase_entries WHERE is_deleted = 0 ORDER BY entry_date DESC, id DESC";
+    static final String FIND_BY_DATE_SQL = "SELECT * FROM purchase_entries WHERE entry_date >= ? AND entry_date < ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
+    static final String FIND_BY_VENDOR_SQL = "SELECT * FROM purchase_entries WHERE vendor_id = ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
+    static final String FIND_BY_DATE_RANGE_SQL = "SELECT * FROM purchase_entries WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
+    static final String FILTERED_SELECT_SQL = "SELECT p.*, v.name AS vendor_name FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE p.is_deleted = 0";
+    static final String FILTERED_COUNT_SQL = "SELECT COUNT(p.id) FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE p.is_deleted = 0";
+    // With a search term the FTS match should drive the query (rowid lookups);
+    // the unary + stops the planner from walking idx_purchase_deleted_date instead
+    static final String FILTERED_SEARCH_SELECT_SQL = "SELECT p.*, v.name AS vendor_name FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE +p.is_deleted = 0";
+    static final String FILTERED_SEARCH_COUNT_SQL = "SELECT COUNT(p.id) FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE +p.is_deleted = 0";
+    // Keyset pagination on (entry_date, id): the leading entry_date bound is an
+    // index range, the OR only filters rows sharing the cursor's date
+    static final String FILTERED_AFTER_CURSOR_SQL = " AND p.entry_date <= ? AND (p.entry_date < ? OR p.id < ?)";
+    static final String FILTERED_BEFORE_CURSOR_SQL = " AND p.entry_date >= ? AND (p.entry_date > ? OR p.id > ?)";
+    static final String FILTERED_ORDER_SQL = " ORDER BY p.entry_date DESC, p.id DESC";
+    static final String FILTERED_PAGE_SQL = FILTERED_ORDER_SQL + " LIMIT ?";
+    static final String FILTERED_PAGE_BACKWARD_SQL = " ORDER BY p.entry_date ASC, p.id ASC LIMIT ?";
+    static final String BAGS_COUNT_SQL = "SELECT COALESCE(SUM(bags), 0) as total_bags FROM purchase_entries " +
+            "WHERE entry_date BETWEEN ? AND ? AND is_deleted = 0";
+    static final String TOTAL_AMOUNT_SQL = "SELECT COALESCE(SUM(grand_total_paise), 0) as total_paise FROM purchase_entries " +
+            "WHERE entry_date BETWEEN ? AND ? AND is_deleted = 0";
+    static final String PENDING_CHEQUES_SQL = "SELECT COUNT(*) as pending_count FROM purchase_entries " +
+            "WHERE UPPER(payment_mode) = 'CHEQUE' AND status != 'PAID' " +
+            "AND entry_date BETWEEN ? AND ? AND is_deleted = 0";
+    // All scalar dashboard KPIs in one statement: conditional sums over the
+    // daily_vendor_stats rollup for the week/month span, plus the all-time
+    // cheque counts as indexed scalar subqueries
+    static final String DASHBOARD_TOTALS_SQL = """
+            SELECT
+                COALESCE(SUM(CASE WHEN entry_date = ? THEN total_bags END), 0) AS bags_today,
+                COALESCE(SUM(CASE WHEN entry_date BETWEEN ? AND ? THEN total_bags END), 0) AS bags_week,
+                COALESCE(SUM(CASE WHEN entry_date BETWEEN ? AND ? THEN total_bags END), 0) AS bags_month,
+                COALESCE(SUM(CASE WHEN entry_date BETWEEN ? AND ? THEN total_amount_paise END), 0) AS amount_month_paise,
+                (SELECT COUNT(*) FROM purchase_entries
+                    WHERE UPPER(payment_mode) = 'CHEQUE' AND status != 'PAID' AND is_deleted = 0) AS pending_cheques,
+                (SELECT COUNT(*) FROM purchase_entries
+                    WHERE UPPER(payment_mode) = 'CHEQUE' AND cheque_date = ? AND is_deleted = 0) AS clearing_today,
+                (SELECT COUNT(*) FROM purchase_entries
+                    WHERE status = 'PAID' AND is_deleted = 0) AS pending_clearing
+            FROM daily_vendor_stats
+            WHERE entry_date BETWEEN ? AND ?
+            """;
+    static final String FIND_BY_VENDOR_AND_STATUS_SQL = "SELECT * FROM purchase_entries " +
+            "WHERE vendor_id = ? AND status = ? AND is_deleted = 0 " +
+            "ORDER BY entry_date DESC";
+    static final String CHEQUES_BY_CLEARING_DATE_SQL = "SELECT COUNT(*) as clearing_count FROM purchase_entries " +
+            "WHERE UPPER(payment_mode) = 'CHEQUE' AND cheque_date = ? AND is_deleted = 0";
+    static final String PENDING_CLEARING_SQL = "SELECT COUNT(*) as pending_count FROM purchase_entries " +
+            "WHERE status = 'PAID' AND is_deleted = 0";
+    // Bulk writes: ids bound as one JSON array, expanded with json_each
+    static final String SOFT_DELETE_ALL_SQL = "UPDATE purchase_entries SET is_deleted = 1, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id IN (SELECT value FROM json_each(?))";
+    static final String RESTORE_ALL_SQL = "UPDATE purchase_entries SET is_deleted = 0, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id IN (SELECT value FROM json_each(?))";
+    static final String UPDATE_STATUS_ALL_SQL = "UPDATE purchase_entries SET status = ?, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id IN (SELECT value FROM json_each(?))";
+    static final String MARK_CHEQUE_ISSUED_SQL = "UPDATE purchase_entries SET status = 'PAID', cheque_number = ?, "
+            + "cheque_date = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    static final String FIND_ALL_DELETED_SQL = "SELECT * FROM purchase_entries WHERE is_deleted = 1 ORDER BY updated_at DESC";
+    // Archiving: chunk ids oldest first, copied into lax_archive.db (see
+    // ArchiveDatabase) and only then deleted here. Explicit column names avoid
+    // mismatch from ALTER TABLE column ordering
+    static final int DEFAULT_ARCHIVE_CHUNK_SIZE = 500;
+    static final String ARCHIVE_COUNT_SQL = "SELECT COUNT(*) FROM purchase_entries WHERE entry_date < ? AND is_deleted = 0";
+    static final String ARCHIVE_CHUNK_IDS_SQL = "SELECT id FROM purchase_entries "
+            + "WHERE entry_date < ? AND is_deleted = 0 ORDER BY entry_date, id LIMIT ?";
+    static final String ARCHIVE_INSERT_SQL = """
+            INSERT OR REPLACE INTO archive.purchase_entries_archive
+                (id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
+                 market_fee_percent, commission_percent, market_fee_amount, commission_amount,
+                 base_amount, grand_total, notes, payment_mode, advance_paid, status,
+                 cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
+                 base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise,
+                 archived_at)
+            SELECT id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
+                   market_fee_percent, commission_percent, market_fee_amount, commission_amount,
+                   base_amount, grand_total, notes, payment_mode, advance_paid, status,
+                   cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
+                   base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise,
+                   CURRENT_TIMESTAMP
+            FROM main.purchase_entries
+            WHERE id IN (SELECT value FROM json_each(?))
+            """;
+    // [[id, updated_at], ...] of the copies just written
+    static final String ARCHIVE_VERSIONS_SQL = "SELECT json_group_array(json_array(id, updated_at)) "
+            + "FROM archive.purchase_entries_archive WHERE id IN (SELECT value FROM json_each(?))";
+    // Only rows unchanged since they were copied; an edit in between keeps the row live
+    static final String ARCHIVE_DELETE_SQL = "DELETE FROM purchase_entries WHERE id IN ("
+            + "SELECT p.id FROM json_each(?) j JOIN purchase_entries p ON p.id = json_extract(j.value, '$[0]') "
+            + "WHERE p.updated_at IS json_extract(j.value, '$[1]'))";
+    // Copies of rows that stayed live (edited mid-move) are dropped again
+    static final String ARCHIVE_DISCARD_SQL = "DELETE FROM archive.purchase_entries_archive "
+            + "WHERE id IN (SELECT json_extract(value, '$[0]') FROM json_each(?)) "
+            + "AND EXISTS (SELECT 1 FROM main.purchase_entries m WHERE m.id = purchase_entries_archive.id)";
+    // A row in both files (move interrupted between its commits) counts as live
+    static final String FIND_ALL_ARCHIVED_SQL = "SELECT * FROM archive.purchase_entries_archive a WHERE a.is_deleted = 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM main.purchase_entries m WHERE m.id = a.id) ORDER BY a.entry_date DESC";
+    // Columns shared by purchase_entries and the archive table
+    private static final String PURCHASE_COLUMNS = "id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum, "
+            + "market_fee_percent, commission_percent, market_fee_amount, commission_amount, base_amount, grand_total, "
+            + "notes, payment_mode, advance_paid, status, cheque_number, cheque_date, created_by_user, is_deleted, "
+            + "created_at, updated_at, "
+            + "base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise";
+    // Restore: read the archived row, insert it on the writer, then drop the copy
+    static final String ARCHIVED_ROW_SQL = "SELECT " + PURCHASE_COLUMNS
+            + " FROM archive.purchase_entries_archive WHERE id = ?";
+    static final String RESTORE_INSERT_SQL = "INSERT OR IGNORE INTO purchase_entries (" + PURCHASE_COLUMNS
+            + ") VALUES (" + "?, ".repeat(26) + "?)";
+    static final String ARCHIVE_DROP_RESTORED_SQL = "DELETE FROM archive.purchase_entries_archive WHERE id = ? "
+            + "AND EXISTS (SELECT 1 FROM main.purchase_entries m WHERE m.id = purchase_entries_archive.id)";
+    static final String COUNT_ARCHIVED_SQL = "SELECT COUNT(*) FROM archive.purchase_entries_archive";
+    // Cross-period reports, one compound SELECT: with the ORDER BY on the compound,
+    // SQLite merges both sides in index order (MERGE (UNION ALL)) instead of
+    // sorting the whole range before the first row
+    static final String FIND_BY_DATE_RANGE_ALL_PERIODS_SQL = "SELECT " + PURCHASE_COLUMNS
+            + " FROM main.purchase_entries WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0 "
+            + "UNION ALL SELECT " + PURCHASE_COLUMNS + " FROM archive.purchase_entries_archive a "
+            + "WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM main.purchase_entries m WHERE m.id = a.id) "
+            + "ORDER BY entry_date DESC, id DESC";
+    static final String EXISTS_BY_DATE_RANGE_SQL = "SELECT EXISTS (SELECT 1 FROM purchase_entries "
+            + "WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0)";
+    static final String EXISTS_BY_DATE_RANGE_ALL_PERIODS_SQL = "SELECT EXISTS (SELECT 1 FROM main.purchase_entries "
+            + "WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0) "
+            + "OR EXISTS (SELECT 1 FROM archive.purchase_entries_archive "
+            + "WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0)";
+
     @Override
     public PurchaseEntity save(PurchaseEntity entity) {
-        if (entity.getId() == null) {
-            return insert(entity);
-        } else {
-            return update(entity);
-        }
+        boolean created = entity.getId() == null;
+        PurchaseEntity saved = created ? insert(entity) : update(entity);
+        EventBus.publish(new DomainEvent.PurchaseSaved(saved, created));
+        return saved;
     }
 
     private PurchaseEntity insert(PurchaseEntity entity) {
@@ -34,32 +175,34 @@ public class PurchaseRepository implements IPurchaseRepository {
                 "entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum, " +
                 "market_fee_percent, commission_percent, market_fee_amount, commission_amount, " +
                 "base_amount, grand_total, notes, payment_mode, " +
-                "advance_paid, status, created_at, updated_at, " +
+                "advance_paid, status, " +
+                "base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise, " +
+                "created_at, updated_at, " +
                 "cheque_number, cheque_date, created_by_user) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            int idx = 1;
-            idx = setCommonFields(pstmt, entity, idx);
-            pstmt.setObject(idx++, entity.getCreatedAt() != null ? entity.getCreatedAt() : LocalDateTime.now());
-            pstmt.setObject(idx++, LocalDateTime.now()); // updated_at
-            pstmt.setString(idx++, entity.getChequeNumber());
-            pstmt.setObject(idx++, entity.getChequeDate());
-            pstmt.setString(idx++, entity.getCreatedByUser() != null ? entity.getCreatedByUser() : "admin");
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating purchase failed, no rows affected.");
-            }
-            try (Statement s = conn.createStatement();
-                    ResultSet rs = s.executeQuery("SELECT last_insert_rowid()")) {
-                rs.next();
-                entity.setId(rs.getInt(1));
-            }
-            return entity;
-
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "RETURNING id";
+
+        try {
+            return DatabaseManager.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int idx = 1;
+                    idx = setCommonFields(pstmt, entity, idx);
+                    pstmt.setObject(idx++, entity.getCreatedAt() != null ? entity.getCreatedAt() : LocalDateTime.now());
+                    pstmt.setObject(idx++, LocalDateTime.now()); // updated_at
+                    pstmt.setString(idx++, entity.getChequeNumber());
+                    pstmt.setObject(idx++, entity.getChequeDate());
+                    pstmt.setString(idx++, entity.getCreatedByUser() != null ? entity.getCreatedByUser() : "admin");
+
+                    // The id comes back from the INSERT itself - no follow-up query
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Creating purchase failed, no rows affected.");
+                        }
+                        entity.setId(rs.getInt(1));
+                    }
+                }
+                return entity;
+            });
         } catch (SQLException e) {
             System.err.println("Error inserting purchase: " + e.getMessage());
             e.printStackTrace();
@@ -69,16 +212,16 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public void updateStatus(Integer id, String status) {
-        String sql = "UPDATE purchase_entries SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, status);
-            pstmt.setInt(2, id);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error updating status: " + e.getMessage());
-            throw new RuntimeException("Failed to update status", e);
+        updateStatusAll(List.of(id), status);
+    }
+
+    @Override
+    public int updateStatusAll(List<Integer> ids, String status) {
+        int updated = updateByIds(UPDATE_STATUS_ALL_SQL, ids, status, "Failed to update status");
+        if (updated > 0) {
+            EventBus.publish(new DomainEvent.StatusChanged(ids, status));
         }
+        return updated;
     }
 
     private PurchaseEntity update(PurchaseEntity entity) {
@@ -86,22 +229,26 @@ public class PurchaseRepository implements IPurchaseRepository {
                 "entry_date = ?, vendor_id = ?, bags = ?, rate = ?, weight_kg = ?, is_lumpsum = ?, " +
                 "market_fee_percent = ?, commission_percent = ?, market_fee_amount = ?, commission_amount = ?, " +
                 "base_amount = ?, grand_total = ?, notes = ?, payment_mode = ?, " +
-                "advance_paid = ?, status = ?, updated_at = ?, " +
+                "advance_paid = ?, status = ?, " +
+                "base_amount_paise = ?, market_fee_amount_paise = ?, commission_amount_paise = ?, grand_total_paise = ?, " +
+                "updated_at = ?, " +
                 "cheque_number = ?, cheque_date = ? " +
                 "WHERE id = ?";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            int idx = 1;
-            idx = setCommonFields(pstmt, entity, idx);
-            pstmt.setObject(idx++, LocalDateTime.now()); // updated_at
-            pstmt.setString(idx++, entity.getChequeNumber());
-            pstmt.setObject(idx++, entity.getChequeDate());
-            pstmt.setInt(idx++, entity.getId()); // WHERE id = ?
-
-            pstmt.executeUpdate();
-            return entity;
+        try {
+            return DatabaseManager.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int idx = 1;
+                    idx = setCommonFields(pstmt, entity, idx);
+                    pstmt.setObject(idx++, LocalDateTime.now()); // updated_at
+                    pstmt.setString(idx++, entity.getChequeNumber());
+                    pstmt.setObject(idx++, entity.getChequeDate());
+                    pstmt.setInt(idx++, entity.getId()); // WHERE id = ?
+
+                    pstmt.executeUpdate();
+                    return entity;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating purchase: " + e.getMessage());
             throw new RuntimeException("Failed to update purchase", e);
@@ -131,14 +278,18 @@ public class PurchaseRepository implements IPurchaseRepository {
         pstmt.setString(index++, entity.getPaymentMode() != null ? entity.getPaymentMode() : "CHEQUE");
         pstmt.setBoolean(index++, entity.getAdvancePaid() != null && entity.getAdvancePaid());
         pstmt.setString(index++, entity.getStatus() != null ? entity.getStatus() : "UNPAID");
+        // Exact copies in paise (the REAL columns above are kept for older builds)
+        pstmt.setLong(index++, FeeCalculator.toPaise(entity.getBaseAmount()));
+        pstmt.setLong(index++, FeeCalculator.toPaise(entity.getMarketFeeAmount()));
+        pstmt.setLong(index++, FeeCalculator.toPaise(entity.getCommissionFeeAmount()));
+        pstmt.setLong(index++, FeeCalculator.toPaise(entity.getGrandTotal()));
         return index;
     }
 
     @Override
     public Optional<PurchaseEntity> findById(Integer id) {
-        String sql = "SELECT * FROM purchase_entries WHERE id = ? AND is_deleted = 0";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -155,11 +306,9 @@ public class PurchaseRepository implements IPurchaseRepository {
     @Override
     public List<PurchaseEntity> findAll() {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries WHERE is_deleted = 0 ORDER BY entry_date DESC, id DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(FIND_ALL_SQL)) {
 
             while (rs.next()) {
                 purchases.add(mapResultSetToEntity(rs));
@@ -173,12 +322,12 @@ public class PurchaseRepository implements IPurchaseRepository {
     @Override
     public List<PurchaseEntity> findByDate(LocalDate date) {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries WHERE DATE(entry_date) = ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Half-open range instead of DATE(entry_date) = ? so the entry_date index is usable
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_DATE_SQL)) {
 
             pstmt.setObject(1, date);
+            pstmt.setObject(2, date.plusDays(1));
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -193,10 +342,8 @@ public class PurchaseRepository implements IPurchaseRepository {
     @Override
     public List<PurchaseEntity> findByVendorId(Integer vendorId) {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries WHERE vendor_id = ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_VENDOR_SQL)) {
 
             pstmt.setInt(1, vendorId);
             ResultSet rs = pstmt.executeQuery();
@@ -213,10 +360,8 @@ public class PurchaseRepository implements IPurchaseRepository {
     @Override
     public List<PurchaseEntity> findByDateRange(LocalDate startDate, LocalDate endDate) {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries WHERE entry_date >= ? AND entry_date <= ? AND is_deleted = 0 ORDER BY entry_date DESC, id DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_DATE_RANGE_SQL)) {
 
             pstmt.setObject(1, startDate);
             pstmt.setObject(2, endDate);
@@ -232,24 +377,155 @@ public class PurchaseRepository implements IPurchaseRepository {
     }
 
     @Override
-    public List<PurchaseEntity> findFilteredPurchases(
+    public Stream<PurchaseEntity> streamAll(int fetchSize) {
+        return stream(FIND_ALL_SQL, fetchSize);
+    }
+
+    @Override
+    public Stream<PurchaseEntity> streamByDateRange(LocalDate startDate, LocalDate endDate, int fetchSize) {
+        return stream(FIND_BY_DATE_RANGE_SQL, fetchSize, startDate, endDate);
+    }
+
+    @Override
+    public Stream<PurchaseEntity> streamAllArchived(int fetchSize) {
+        // Read lane can't create the archive file; nothing archived yet
+        if (!java.nio.file.Files.exists(ArchiveDatabase.getArchiveFile())) {
+            return Stream.empty();
+        }
+        return stream(FIND_ALL_ARCHIVED_SQL, true, fetchSize);
+    }
+
+    /**
+     * Live and archived purchases in the range. Attaches lax_archive.db only if
+     * something was ever archived; otherwise this is streamByDateRange.
+     */
+    @Override
+    public Stream<PurchaseEntity> streamByDateRangeAllPeriods(LocalDate startDate, LocalDate endDate, int fetchSize) {
+        if (!java.nio.file.Files.exists(ArchiveDatabase.getArchiveFile())) {
+            return streamByDateRange(startDate, endDate, fetchSize);
+        }
+        return stream(FIND_BY_DATE_RANGE_ALL_PERIODS_SQL, true, fetchSize, startDate, endDate, startDate, endDate);
+    }
+
+    @Override
+    public boolean existsByDateRangeAllPeriods(LocalDate startDate, LocalDate endDate) {
+        try {
+            if (!java.nio.file.Files.exists(ArchiveDatabase.getArchiveFile())) {
+                try (Connection conn = DatabaseManager.getReadConnection()) {
+                    return exists(conn, EXISTS_BY_DATE_RANGE_SQL, startDate, endDate);
+                }
+            }
+            return ArchiveDatabase.withArchive(conn -> exists(conn, EXISTS_BY_DATE_RANGE_ALL_PERIODS_SQL,
+                    startDate, endDate, startDate, endDate));
+        } catch (SQLException e) {
+            System.err.println("Error checking purchases in range: " + e.getMessage());
+            throw new RuntimeException("Failed to check purchases in range", e);
+        }
+    }
+
+    private static boolean exists(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private Stream<PurchaseEntity> stream(String sql, int fetchSize, Object... params) {
+        return stream(sql, false, fetchSize, params);
+    }
+
+    /**
+     * Lazily map rows as the stream is consumed. The connection, statement and
+     * result set (and the archive, if attached) stay open until the stream is closed.
+     */
+    private Stream<PurchaseEntity> stream(String sql, boolean archive, int fetchSize, Object... params) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+        boolean attached = false;
+        try {
+            conn = DatabaseManager.getReadConnection();
+            if (archive) {
+                ArchiveDatabase.attach(conn);
+                attached = true;
+            }
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            Connection failed = conn;
+            closeQuietly(pstmt, attached ? () -> ArchiveDatabase.detachQuietly(failed) : null, conn);
+            throw new RuntimeException("Failed to open purchase stream", e);
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = pstmt;
+        Connection connection = conn;
+        AutoCloseable detach = archive ? () -> ArchiveDatabase.detachQuietly(connection) : null;
+        Spliterator<PurchaseEntity> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super PurchaseEntity> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapResultSetToEntity(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to read purchase stream", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(cursor, statement, detach, connection));
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to close stream resource", e);
+            }
+        }
+    }
+
+    @Override
+    public PurchasePage findFilteredPurchases(
             LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
             BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued,
-            String searchQuery, int limit, int offset) {
+            String searchQuery, String cursor, boolean backward, int limit) {
 
-        List<PurchaseEntity> purchases = new ArrayList<>();
-        StringBuilder sql = new StringBuilder(
-                "SELECT p.* FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE p.is_deleted = 0");
+        PurchasePage.Cursor position = cursor != null ? PurchasePage.Cursor.decode(cursor) : null;
+        boolean seekBackward = backward && position != null;
+
+        StringBuilder sql = new StringBuilder(filteredSelectSql(searchQuery));
         List<Object> params = new ArrayList<>();
 
         buildFilterQuery(sql, params, startDate, endDate, vendorIds, minAmount, maxAmount, chequeIssued,
                 searchQuery);
 
-        sql.append(" ORDER BY p.entry_date DESC, p.id DESC LIMIT ? OFFSET ?");
-        params.add(limit);
-        params.add(offset);
+        if (position != null) {
+            sql.append(seekBackward ? FILTERED_BEFORE_CURSOR_SQL : FILTERED_AFTER_CURSOR_SQL);
+            params.add(position.entryDate());
+            params.add(position.entryDate());
+            params.add(position.id());
+        }
+        sql.append(seekBackward ? FILTERED_PAGE_BACKWARD_SQL : FILTERED_PAGE_SQL);
+        params.add(limit + 1); // one extra row tells us whether there is more in this direction
 
-        try (Connection conn = DatabaseManager.getConnection();
+        List<PurchaseHistoryRow> purchases = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
             for (int i = 0; i < params.size(); i++) {
@@ -258,13 +534,56 @@ public class PurchaseRepository implements IPurchaseRepository {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    purchases.add(mapResultSetToEntity(rs));
+                    purchases.add(new PurchaseHistoryRow(mapResultSetToEntity(rs), rs.getString("vendor_name")));
                 }
             }
         } catch (SQLException e) {
             System.err.println("Error fetching filtered purchases: " + e.getMessage());
+            return PurchasePage.empty();
         }
-        return purchases;
+
+        boolean more = purchases.size() > limit;
+        if (more) {
+            purchases.remove(purchases.size() - 1);
+        }
+
+        if (seekBackward) {
+            if (!more && purchases.size() < limit) {
+                // Walked back past the first page (rows were added or deleted);
+                // show a full first page instead of a short one
+                return findFilteredPurchases(startDate, endDate, vendorIds, minAmount, maxAmount,
+                        chequeIssued, searchQuery, null, false, limit);
+            }
+            java.util.Collections.reverse(purchases);
+            return toPage(purchases, true, more);
+        }
+        return toPage(purchases, more, position != null);
+    }
+
+    /**
+     * Every purchase matching the history filters, newest first, straight off
+     * the cursor (exports). Must be closed.
+     */
+    public Stream<PurchaseEntity> streamFiltered(
+            LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
+            BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued,
+            String searchQuery, int fetchSize) {
+        StringBuilder sql = new StringBuilder(filteredSelectSql(searchQuery));
+        List<Object> params = new ArrayList<>();
+        buildFilterQuery(sql, params, startDate, endDate, vendorIds, minAmount, maxAmount, chequeIssued,
+                searchQuery);
+        sql.append(FILTERED_ORDER_SQL);
+        return stream(sql.toString(), fetchSize, params.toArray());
+    }
+
+    private static PurchasePage toPage(List<PurchaseHistoryRow> purchases, boolean hasNext, boolean hasPrevious) {
+        if (purchases.isEmpty()) {
+            return new PurchasePage(purchases, null, null, false, hasPrevious);
+        }
+        return new PurchasePage(purchases,
+                PurchasePage.Cursor.of(purchases.get(0).purchase()).encode(),
+                PurchasePage.Cursor.of(purchases.get(purchases.size() - 1).purchase()).encode(),
+                hasNext, hasPrevious);
     }
 
     @Override
@@ -273,14 +592,13 @@ public class PurchaseRepository implements IPurchaseRepository {
             BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued,
             String searchQuery) {
 
-        StringBuilder sql = new StringBuilder(
-                "SELECT COUNT(p.id) FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id WHERE p.is_deleted = 0");
+        StringBuilder sql = new StringBuilder(filteredCountSql(searchQuery));
         List<Object> params = new ArrayList<>();
 
         buildFilterQuery(sql, params, startDate, endDate, vendorIds, minAmount, maxAmount, chequeIssued,
                 searchQuery);
 
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
             for (int i = 0; i < params.size(); i++) {
@@ -298,7 +616,15 @@ public class PurchaseRepository implements IPurchaseRepository {
         return 0;
     }
 
-    private void buildFilterQuery(StringBuilder sql, List<Object> params,
+    static String filteredSelectSql(String searchQuery) {
+        return toFtsQuery(searchQuery) != null ? FILTERED_SEARCH_SELECT_SQL : FILTERED_SELECT_SQL;
+    }
+
+    static String filteredCountSql(String searchQuery) {
+        return toFtsQuery(searchQuery) != null ? FILTERED_SEARCH_COUNT_SQL : FILTERED_COUNT_SQL;
+    }
+
+    static void buildFilterQuery(StringBuilder sql, List<Object> params,
             LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
             BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued,
             String searchQuery) {
@@ -322,12 +648,12 @@ public class PurchaseRepository implements IPurchaseRepository {
             sql.append(")");
         }
         if (minAmount != null) {
-            sql.append(" AND p.grand_total >= ?");
-            params.add(minAmount);
+            sql.append(" AND p.grand_total_paise >= ?");
+            params.add(FeeCalculator.toPaise(minAmount));
         }
         if (maxAmount != null) {
-            sql.append(" AND p.grand_total <= ?");
-            params.add(maxAmount);
+            sql.append(" AND p.grand_total_paise <= ?");
+            params.add(FeeCalculator.toPaise(maxAmount));
         }
         if (chequeIssued != null) {
             if (chequeIssued) {
@@ -336,15 +662,38 @@ public class PurchaseRepository implements IPurchaseRepository {
                 sql.append(" AND (p.cheque_number IS NULL OR p.cheque_number = '')");
             }
         }
-        if (searchQuery != null && !searchQuery.isBlank()) {
-            sql.append(" AND (v.name LIKE ? OR p.cheque_number LIKE ? OR p.status LIKE ?)");
-            String likeQuery = "%" + searchQuery + "%";
-            params.add(likeQuery);
-            params.add(likeQuery);
-            params.add(likeQuery);
+        String ftsQuery = toFtsQuery(searchQuery);
+        if (ftsQuery != null) {
+            // Vendor name, cheque number, status and notes via the FTS5 index
+            // (DatabaseMigrator V22) instead of '%q%' LIKEs that scan every row
+            sql.append(" AND p.id IN (SELECT rowid FROM purchase_search WHERE purchase_search MATCH ?)");
+            params.add(ftsQuery);
         }
     }
 
+    /**
+     * Turn free text from the search box into an FTS5 query: every word must
+     * match as a prefix ("ram tra" matches "Ram Traders"). Words are quoted so
+     * user input can't inject FTS syntax. Returns null if there is nothing to
+     * search for.
+     */
+    static String toFtsQuery(String searchQuery) {
+        if (searchQuery == null || searchQuery.isBlank()) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String term : searchQuery.split("[^\\p{L}\\p{N}]+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(term).append("\"*");
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
     @Override
     public List<PurchaseEntity> findTodaysPurchases() {
         return findByDate(LocalDate.now());
@@ -360,11 +709,8 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public Integer getBagsCount(LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT COALESCE(SUM(bags), 0) as total_bags FROM purchase_entries " +
-                "WHERE entry_date BETWEEN ? AND ? AND is_deleted = 0";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(BAGS_COUNT_SQL)) {
 
             pstmt.setObject(1, startDate);
             pstmt.setObject(2, endDate);
@@ -381,18 +727,15 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public Double getTotalAmount(LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT COALESCE(SUM(grand_total), 0.0) as total_amount FROM purchase_entries " +
-                "WHERE entry_date BETWEEN ? AND ? AND is_deleted = 0";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(TOTAL_AMOUNT_SQL)) {
 
             pstmt.setObject(1, startDate);
             pstmt.setObject(2, endDate);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("total_amount");
+                return rs.getLong("total_paise") / 100.0;
             }
         } catch (SQLException e) {
             System.err.println("Error getting total amount: " + e.getMessage());
@@ -402,12 +745,8 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public Integer countPendingCheques(LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT COUNT(*) as pending_count FROM purchase_entries " +
-                "WHERE UPPER(payment_mode) = 'CHEQUE' AND status != 'PAID' " +
-                "AND entry_date BETWEEN ? AND ? AND is_deleted = 0";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(PENDING_CHEQUES_SQL)) {
 
             pstmt.setObject(1, startDate);
             pstmt.setObject(2, endDate);
@@ -422,15 +761,50 @@ public class PurchaseRepository implements IPurchaseRepository {
         return 0;
     }
 
+    @Override
+    public DashboardTotals getDashboardTotals(LocalDate today, LocalDate startOfWeek, LocalDate endOfWeek,
+            LocalDate startOfMonth, LocalDate endOfMonth) {
+        // The week can straddle a month boundary, so scan the union of both ranges
+        LocalDate spanStart = startOfWeek.isBefore(startOfMonth) ? startOfWeek : startOfMonth;
+        LocalDate spanEnd = endOfWeek.isAfter(endOfMonth) ? endOfWeek : endOfMonth;
+
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(DASHBOARD_TOTALS_SQL)) {
+
+            pstmt.setObject(1, today);
+            pstmt.setObject(2, startOfWeek);
+            pstmt.setObject(3, endOfWeek);
+            pstmt.setObject(4, startOfMonth);
+            pstmt.setObject(5, endOfMonth);
+            pstmt.setObject(6, startOfMonth);
+            pstmt.setObject(7, endOfMonth);
+            pstmt.setObject(8, today);
+            pstmt.setObject(9, spanStart);
+            pstmt.setObject(10, spanEnd);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new DashboardTotals(
+                            rs.getInt("bags_today"),
+                            rs.getInt("bags_week"),
+                            rs.getInt("bags_month"),
+                            rs.getLong("amount_month_paise") / 100.0,
+                            rs.getInt("pending_cheques"),
+                            rs.getInt("clearing_today"),
+                            rs.getInt("pending_clearing"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting dashboard totals: " + e.getMessage());
+        }
+        return new DashboardTotals(0, 0, 0, 0.0, 0, 0, 0);
+    }
+
     @Override
     public List<PurchaseEntity> findByVendorAndStatus(Integer vendorId, String status) {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries " +
-                "WHERE vendor_id = ? AND status = ? AND is_deleted = 0 " +
-                "ORDER BY entry_date DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_VENDOR_AND_STATUS_SQL)) {
 
             pstmt.setInt(1, vendorId);
             pstmt.setString(2, status);
@@ -447,11 +821,8 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public Integer countChequesByClearingDate(LocalDate date) {
-        String sql = "SELECT COUNT(*) as clearing_count FROM purchase_entries " +
-                "WHERE UPPER(payment_mode) = 'CHEQUE' AND cheque_date = ? AND is_deleted = 0";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(CHEQUES_BY_CLEARING_DATE_SQL)) {
 
             pstmt.setObject(1, date);
             ResultSet rs = pstmt.executeQuery();
@@ -467,11 +838,9 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public Integer countPendingClearing() {
-        String sql = "SELECT COUNT(*) as pending_count FROM purchase_entries " +
-                "WHERE status = 'PAID' AND is_deleted = 0";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(PENDING_CLEARING_SQL)) {
             if (rs.next()) {
                 return rs.getInt("pending_count");
             }
@@ -481,42 +850,25 @@ public class PurchaseRepository implements IPurchaseRepository {
         return 0;
     }
 
-    @Override
-    public int getLastInsertedId() {
-        String sql = "SELECT MAX(id) FROM purchase_entries";
-        try (Connection conn = DatabaseManager.getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next())
-                return rs.getInt(1);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return -1;
-    }
-
     public void delete(Integer id) {
-        String sql = "UPDATE purchase_entries SET is_deleted = 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        softDeleteAll(List.of(id));
+    }
 
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error soft deleting purchase: " + e.getMessage());
-            throw new RuntimeException("Failed to delete purchase", e);
+    @Override
+    public int softDeleteAll(List<Integer> ids) {
+        int deleted = updateByIds(SOFT_DELETE_ALL_SQL, ids, null, "Failed to delete purchase");
+        if (deleted > 0) {
+            EventBus.publish(new DomainEvent.PurchaseDeleted(ids));
         }
+        return deleted;
     }
 
     @Override
     public List<PurchaseEntity> findAllDeleted() {
         List<PurchaseEntity> purchases = new ArrayList<>();
-        String sql = "SELECT * FROM purchase_entries WHERE is_deleted = 1 ORDER BY updated_at DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(FIND_ALL_DELETED_SQL)) {
 
             while (rs.next()) {
                 purchases.add(mapResultSetToEntity(rs));
@@ -529,16 +881,85 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public void restore(Integer id) {
-        String sql = "UPDATE purchase_entries SET is_deleted = 0, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        restoreAll(List.of(id));
+    }
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    @Override
+    public int restoreAll(List<Integer> ids) {
+        int restored = updateByIds(RESTORE_ALL_SQL, ids, null, "Failed to restore purchase");
+        if (restored > 0) {
+            EventBus.publish(new DomainEvent.PurchaseRestored(ids));
+        }
+        return restored;
+    }
 
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+    /**
+     * One set-based UPDATE for all ids, as one write (one transaction). The ids
+     * go in as a single JSON array parameter, so the SQL text - and its cached
+     * statement - is the same for 1 or 5000 ids.
+     *
+     * @param status bound as the first parameter when not null
+     */
+    private int updateByIds(String sql, List<Integer> ids, String status, String failureMessage) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        String idArray = ids.stream()
+                .filter(java.util.Objects::nonNull)
+                .map(String::valueOf)
+                .collect(java.util.stream.Collectors.joining(",", "[", "]"));
+        try {
+            return DatabaseManager.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int idx = 1;
+                    if (status != null) {
+                        pstmt.setString(idx++, status);
+                    }
+                    pstmt.setString(idx, idArray);
+                    return pstmt.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println(failureMessage + ": " + e.getMessage());
+            throw new RuntimeException(failureMessage, e);
+        }
+    }
+
+    /**
+     * Record cheques printed in a batch: status PAID plus each row's cheque
+     * number and date. Values differ per row, so this is one prepared statement
+     * executed as a batch inside a single write transaction.
+     */
+    public int markChequesIssued(List<com.lax.sme_manager.dto.ChequeData> cheques) {
+        List<com.lax.sme_manager.dto.ChequeData> rows = cheques.stream()
+                .filter(c -> c.purchaseId() != null)
+                .toList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            int updated = DatabaseManager.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(MARK_CHEQUE_ISSUED_SQL)) {
+                    for (com.lax.sme_manager.dto.ChequeData data : rows) {
+                        pstmt.setString(1, data.chequeNumber());
+                        pstmt.setObject(2, data.date());
+                        pstmt.setInt(3, data.purchaseId());
+                        pstmt.addBatch();
+                    }
+                    int count = 0;
+                    for (int n : pstmt.executeBatch()) {
+                        count += Math.max(n, 0);
+                    }
+                    return count;
+                }
+            });
+            EventBus.publish(new DomainEvent.ChequesIssued(rows.stream()
+                    .map(c -> new DomainEvent.ChequesIssued.Cheque(c.purchaseId(), c.chequeNumber(), c.date()))
+                    .toList()));
+            return updated;
         } catch (SQLException e) {
-            System.err.println("Error restoring purchase: " + e.getMessage());
-            throw new RuntimeException("Failed to restore purchase", e);
+            System.err.println("Error recording issued cheques: " + e.getMessage());
+            throw new RuntimeException("Failed to record issued cheques", e);
         }
     }
 
@@ -553,10 +974,10 @@ public class PurchaseRepository implements IPurchaseRepository {
                 .isLumpsum(rs.getBoolean("is_lumpsum"))
                 .marketFeePercent(rs.getObject("market_fee_percent", BigDecimal.class))
                 .commissionPercent(rs.getObject("commission_percent", BigDecimal.class))
-                .marketFeeAmount(rs.getObject("market_fee_amount", BigDecimal.class))
-                .commissionFeeAmount(rs.getObject("commission_amount", BigDecimal.class))
-                .baseAmount(rs.getObject("base_amount", BigDecimal.class))
-                .grandTotal(rs.getObject("grand_total", BigDecimal.class))
+                .marketFeeAmount(FeeCalculator.fromPaise(rs.getLong("market_fee_amount_paise")))
+                .commissionFeeAmount(FeeCalculator.fromPaise(rs.getLong("commission_amount_paise")))
+                .baseAmount(FeeCalculator.fromPaise(rs.getLong("base_amount_paise")))
+                .grandTotal(FeeCalculator.fromPaise(rs.getLong("grand_total_paise")))
                 .paymentMode(rs.getString("payment_mode"))
                 .notes(rs.getString("notes"))
                 .advancePaid(rs.getBoolean("advance_paid"))
@@ -572,115 +993,211 @@ public class PurchaseRepository implements IPurchaseRepository {
 
     @Override
     public int archiveOldData(LocalDate beforeDate) {
-        // Trigger backup before archiving
+        return archiveOldData(beforeDate, DEFAULT_ARCHIVE_CHUNK_SIZE, (archived, total) -> {
+        }, () -> false);
+    }
+
+    /**
+     * Move purchases older than beforeDate into lax_archive.db.
+     * - Chunks of chunkSize rows; each is copied and committed in the archive
+     * first, then deleted here in one short write, so saves queued on the
+     * writer run between chunks and a crash never loses a row
+     * - Cancelling stops after the current chunk; chunks already moved stay moved
+     * - Free pages are then handed back with incremental_vacuum steps, not VACUUM
+     *
+     * @return rows moved, or -1 on error
+     */
+    @Override
+    public int archiveOldData(LocalDate beforeDate, int chunkSize, ArchiveProgress progress,
+            java.util.function.BooleanSupplier cancelled) {
+        // Back up before archiving (joins a scheduled backup already running)
         LOGGER.info("Triggering automatic backup before archiving old data.");
-        new com.lax.sme_manager.util.BackupService().performBackup();
-
-        // Use explicit column names to avoid mismatch from ALTER TABLE column ordering
-        String insertSql = """
-                INSERT INTO purchase_entries_archive
-                    (id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
-                     market_fee_percent, commission_percent, market_fee_amount, commission_amount,
-                     base_amount, grand_total, notes, payment_mode, advance_paid, status,
-                     cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
-                     archived_at)
-                SELECT id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
-                       market_fee_percent, commission_percent, market_fee_amount, commission_amount,
-                       base_amount, grand_total, notes, payment_mode, advance_paid, status,
-                       cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
-                       CURRENT_TIMESTAMP
-                FROM purchase_entries
-                WHERE entry_date < ? AND is_deleted = 0
-                """;
-        String deleteSql = "DELETE FROM purchase_entries WHERE entry_date < ? AND is_deleted = 0";
-
-        try (Connection conn = DatabaseManager.getConnection()) {
-            conn.setAutoCommit(false);
-            int movedCount = 0;
-
-            try (PreparedStatement pstmtInsert = conn.prepareStatement(insertSql);
-                    PreparedStatement pstmtDelete = conn.prepareStatement(deleteSql)) {
-
-                pstmtInsert.setObject(1, beforeDate);
-                movedCount = pstmtInsert.executeUpdate();
-
-                if (movedCount > 0) {
-                    pstmtDelete.setObject(1, beforeDate);
-                    pstmtDelete.executeUpdate();
+        com.lax.sme_manager.util.BackupScheduler.getInstance().backupNow().join();
+
+        int limit = Math.max(1, chunkSize);
+        int movedCount = 0;
+        try {
+            int total;
+            try (Connection conn = DatabaseManager.getReadConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_COUNT_SQL)) {
+                pstmt.setObject(1, beforeDate);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    total = rs.next() ? rs.getInt(1) : 0;
                 }
+            }
+            progress.onProgress(0, total);
 
-                conn.commit();
-                return movedCount;
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
+            while (!cancelled.getAsBoolean()) {
+                int moved = archiveChunk(beforeDate, limit);
+                if (moved <= 0) {
+                    break;
+                }
+                movedCount += moved;
+                progress.onProgress(movedCount, Math.max(total, movedCount));
             }
+            return movedCount;
         } catch (SQLException e) {
             System.err.println("Error archiving data: " + e.getMessage());
             e.printStackTrace();
             return -1;
         } finally {
-            // Reclaim space in a separate connection with auto-commit
-            try (Connection vacuumConn = DatabaseManager.getConnection();
-                    Statement stmt = vacuumConn.createStatement()) {
-                stmt.execute("VACUUM");
-            } catch (SQLException e) {
-                System.err.println("Error during VACUUM: " + e.getMessage());
-                e.printStackTrace();
+            if (movedCount > 0) {
+                EventBus.publish(new DomainEvent.PurchasesArchived(beforeDate, movedCount));
+            }
+            if (!cancelled.getAsBoolean()) {
+                try {
+                    DatabaseManager.reclaimFreePages(cancelled);
+                } catch (SQLException e) {
+                    System.err.println("Error reclaiming free pages: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return rows moved; 0 when nothing is left, -1 when every row of the chunk
+     *         changed while it was being copied (stop rather than spin)
+     */
+    private int archiveChunk(LocalDate beforeDate, int limit) throws SQLException {
+        // 1. Copy into the archive and commit there
+        String versions = ArchiveDatabase.withArchive(conn -> copyChunkToArchive(conn, beforeDate, limit));
+        if (versions == null) {
+            return 0;
+        }
+
+        // 2. Delete the copied rows here, on the writer
+        int deleted = DatabaseManager.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_DELETE_SQL)) {
+                pstmt.setString(1, versions);
+                return pstmt.executeUpdate();
+            }
+        });
+
+        // 3. Rows edited in between stayed live; drop their stale copies
+        int discarded = ArchiveDatabase.withArchive(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_DISCARD_SQL)) {
+                pstmt.setString(1, versions);
+                return pstmt.executeUpdate();
+            }
+        });
+        if (discarded > 0) {
+            LOGGER.info("{} purchases changed while being archived; left them live", discarded);
+        }
+        return deleted > 0 ? deleted : -1;
+    }
+
+    /** @return [[id, updated_at], ...] of the copied rows, or null if none are left */
+    private String copyChunkToArchive(Connection conn, LocalDate beforeDate, int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>(limit);
+        try (PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_CHUNK_IDS_SQL)) {
+            pstmt.setObject(1, beforeDate);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return null;
+        }
+        String idArray = ids.stream()
+                .map(String::valueOf)
+                .collect(java.util.stream.Collectors.joining(",", "[", "]"));
+        try (PreparedStatement pstmtInsert = conn.prepareStatement(ARCHIVE_INSERT_SQL);
+                PreparedStatement pstmtVersions = conn.prepareStatement(ARCHIVE_VERSIONS_SQL)) {
+            pstmtInsert.setString(1, idArray);
+            pstmtInsert.executeUpdate();
+            pstmtVersions.setString(1, idArray);
+            try (ResultSet rs = pstmtVersions.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
             }
         }
     }
 
     @Override
     public List<PurchaseEntity> findAllArchived() {
-        String sql = "SELECT * FROM purchase_entries_archive WHERE is_deleted = 0 ORDER BY entry_date DESC";
-        List<PurchaseEntity> list = new java.util.ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                list.add(mapResultSetToEntity(rs));
-            }
+        try {
+            return ArchiveDatabase.withArchive(conn -> {
+                List<PurchaseEntity> list = new java.util.ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_ARCHIVED_SQL);
+                        ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(mapResultSetToEntity(rs));
+                    }
+                }
+                return list;
+            });
         } catch (SQLException e) {
             System.err.println("Error fetching archived data: " + e.getMessage());
+            return new java.util.ArrayList<>();
         }
-        return list;
     }
 
+    @Override
+    public int countArchived() {
+        try {
+            return ArchiveDatabase.withArchive(conn -> {
+                try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery(COUNT_ARCHIVED_SQL)) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error counting archived data: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Copy the row back into purchase_entries on the writer (committed there
+     * first), then drop it from the archive. A row already live (a move
+     * interrupted between its commits) is kept as is and only its archive copy
+     * is dropped.
+     */
     @Override
     public boolean restoreFromArchive(Integer id) {
-        String insertSql = "INSERT INTO purchase_entries (id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum, "
-                +
-                "market_fee_percent, commission_percent, market_fee_amount, commission_amount, base_amount, grand_total, "
-                +
-                "notes, payment_mode, advance_paid, status, cheque_number, cheque_date, created_by_user, is_deleted, " +
-                "created_at, updated_at) " +
-                "SELECT id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum, " +
-                "market_fee_percent, commission_percent, market_fee_amount, commission_amount, base_amount, grand_total, "
-                +
-                "notes, payment_mode, advance_paid, status, cheque_number, cheque_date, created_by_user, is_deleted, " +
-                "created_at, updated_at FROM purchase_entries_archive WHERE id = ?";
-        String deleteSql = "DELETE FROM purchase_entries_archive WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection()) {
-            conn.setAutoCommit(false);
-            try (PreparedStatement pstmtInsert = conn.prepareStatement(insertSql);
-                    PreparedStatement pstmtDelete = conn.prepareStatement(deleteSql)) {
-
-                pstmtInsert.setInt(1, id);
-                int inserted = pstmtInsert.executeUpdate();
-
-                if (inserted > 0) {
-                    pstmtDelete.setInt(1, id);
-                    pstmtDelete.executeUpdate();
-                    conn.commit();
-                    return true;
+        try {
+            // 1. Read the archived row
+            Object[] row = ArchiveDatabase.withArchive(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(ARCHIVED_ROW_SQL)) {
+                    pstmt.setInt(1, id);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        Object[] values = new Object[rs.getMetaData().getColumnCount()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = rs.getObject(i + 1);
+                        }
+                        return values;
+                    }
                 }
-                conn.rollback();
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
+            });
+            if (row == null) {
+                return false;
             }
+
+            // 2. Make it live again
+            DatabaseManager.write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(RESTORE_INSERT_SQL)) {
+                    for (int i = 0; i < row.length; i++) {
+                        pstmt.setObject(i + 1, row[i]);
+                    }
+                    return pstmt.executeUpdate();
+                }
+            });
+
+            // 3. Drop the archive copy, now that the row is live
+            ArchiveDatabase.withArchive(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(ARCHIVE_DROP_RESTORED_SQL)) {
+                    pstmt.setInt(1, id);
+                    return pstmt.executeUpdate();
+                }
+            });
+            EventBus.publish(new DomainEvent.PurchaseRestored(List.of(id)));
+            return true;
         } catch (SQLException e) {
             System.err.println("Error restoring from archive: " + e.getMessage());
         }
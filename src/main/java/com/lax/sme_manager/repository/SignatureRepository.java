@@ -15,7 +15,7 @@ public class SignatureRepository {
     public List<SignatureConfig> getAllSignatures() {
         List<SignatureConfig> list = new ArrayList<>();
         String sql = "SELECT * FROM signatures";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
@@ -29,7 +29,7 @@ public class SignatureRepository {
 
     public SignatureConfig getSignatureById(int id) {
         String sql = "SELECT * FROM signatures WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
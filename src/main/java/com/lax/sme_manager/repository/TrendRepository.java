@@ -9,14 +9,25 @@ import java.util.TreeMap;
 
 public class TrendRepository implements ITrendRepository {
 
+    // Read from the trigger-maintained daily_vendor_stats rollup (live purchases
+    // only), so cost depends on days x vendors rather than transactions
+    static final String WEEKLY_BAGS_SQL = "SELECT entry_date, SUM(total_bags) as total_bags " +
+            "FROM daily_vendor_stats " +
+            "WHERE entry_date >= ? " +
+            "GROUP BY entry_date " +
+            "ORDER BY entry_date ASC";
+    static final String PAYMENT_MODE_SQL = "SELECT NULLIF(payment_mode, '') as payment_mode, SUM(txn_count) as count " +
+            "FROM daily_vendor_stats " +
+            "GROUP BY payment_mode";
+    static final String TOP_VENDORS_SQL = "SELECT v.name, SUM(d.total_bags) as total_bags " +
+            "FROM daily_vendor_stats d " +
+            "JOIN vendors v ON d.vendor_id = v.id " +
+            "GROUP BY d.vendor_id " +
+            "ORDER BY total_bags DESC " +
+            "LIMIT ?";
+
     @Override
     public Map<LocalDate, Integer> getWeeklyBagsTrend() {
-        String sql = "SELECT entry_date, SUM(bags) as total_bags " +
-                "FROM purchase_entries " +
-                "WHERE entry_date >= ? AND is_deleted = 0 " +
-                "GROUP BY entry_date " +
-                "ORDER BY entry_date ASC";
-
         Map<LocalDate, Integer> trend = new TreeMap<>(); // Sorted by date
         LocalDate sevenDaysAgo = LocalDate.now().minusDays(6);
 
@@ -25,8 +36,8 @@ public class TrendRepository implements ITrendRepository {
             trend.put(sevenDaysAgo.plusDays(i), 0);
         }
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(WEEKLY_BAGS_SQL)) {
 
             pstmt.setObject(1, sevenDaysAgo);
 
@@ -44,15 +55,10 @@ public class TrendRepository implements ITrendRepository {
 
     @Override
     public Map<String, Integer> getPaymentModeDistribution() {
-        String sql = "SELECT payment_mode, COUNT(*) as count " +
-                "FROM purchase_entries " +
-                "WHERE is_deleted = 0 " +
-                "GROUP BY payment_mode";
-
         Map<String, Integer> distribution = new LinkedHashMap<>();
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSet rs = stmt.executeQuery(PAYMENT_MODE_SQL)) {
 
             while (rs.next()) {
                 distribution.put(rs.getString("payment_mode"), rs.getInt("count"));
@@ -65,17 +71,9 @@ public class TrendRepository implements ITrendRepository {
 
     @Override
     public Map<String, Integer> getTopVendors(int limit) {
-        String sql = "SELECT v.name, SUM(p.bags) as total_bags " +
-                "FROM purchase_entries p " +
-                "JOIN vendors v ON p.vendor_id = v.id " +
-                "WHERE p.is_deleted = 0 " +
-                "GROUP BY v.id " +
-                "ORDER BY total_bags DESC " +
-                "LIMIT ?";
-
         Map<String, Integer> topVendors = new LinkedHashMap<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(TOP_VENDORS_SQL)) {
 
             pstmt.setInt(1, limit);
 
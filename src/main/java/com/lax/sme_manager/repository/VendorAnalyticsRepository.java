@@ -10,18 +10,27 @@ import java.util.TreeMap;
 
 public class VendorAnalyticsRepository implements IVendorAnalyticsRepository {
 
+    // From the daily_vendor_stats rollup (see TrendRepository)
+    static final String MONTHLY_SUPPLY_SQL = "SELECT strftime('%Y-%m', entry_date) as month, SUM(total_bags) as total_bags " +
+            "FROM daily_vendor_stats " +
+            "WHERE vendor_id = ? " +
+            "GROUP BY month " +
+            "ORDER BY month DESC " +
+            "LIMIT 12";
+    static final String PRICE_HISTORY_SQL = "SELECT entry_date, rate " +
+            "FROM purchase_entries " +
+            "WHERE vendor_id = ? AND is_deleted = 0 " +
+            "ORDER BY entry_date ASC";
+    static final String VENDOR_SUMMARY_SQL = "SELECT COUNT(*) as trans_count, SUM(bags) as total_bags, " +
+            "AVG(rate) as avg_rate, MAX(entry_date) as last_date " +
+            "FROM purchase_entries " +
+            "WHERE vendor_id = ? AND is_deleted = 0";
+
     @Override
     public Map<String, Integer> getMonthlySupplyTrend(int vendorId) {
-        String sql = "SELECT strftime('%Y-%m', entry_date) as month, SUM(bags) as total_bags " +
-                "FROM purchase_entries " +
-                "WHERE vendor_id = ? AND is_deleted = 0 " +
-                "GROUP BY month " +
-                "ORDER BY month DESC " +
-                "LIMIT 12";
-
         Map<String, Integer> trend = new LinkedHashMap<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(MONTHLY_SUPPLY_SQL)) {
 
             pstmt.setInt(1, vendorId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -37,14 +46,9 @@ public class VendorAnalyticsRepository implements IVendorAnalyticsRepository {
 
     @Override
     public Map<LocalDate, BigDecimal> getPriceHistory(int vendorId) {
-        String sql = "SELECT entry_date, rate " +
-                "FROM purchase_entries " +
-                "WHERE vendor_id = ? AND is_deleted = 0 " +
-                "ORDER BY entry_date ASC";
-
         Map<LocalDate, BigDecimal> history = new TreeMap<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(PRICE_HISTORY_SQL)) {
 
             pstmt.setInt(1, vendorId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -61,14 +65,9 @@ public class VendorAnalyticsRepository implements IVendorAnalyticsRepository {
 
     @Override
     public Map<String, Object> getVendorSummary(int vendorId) {
-        String sql = "SELECT COUNT(*) as trans_count, SUM(bags) as total_bags, " +
-                "AVG(rate) as avg_rate, MAX(entry_date) as last_date " +
-                "FROM purchase_entries " +
-                "WHERE vendor_id = ? AND is_deleted = 0";
-
         Map<String, Object> summary = new LinkedHashMap<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+                PreparedStatement pstmt = conn.prepareStatement(VENDOR_SUMMARY_SQL)) {
 
             pstmt.setInt(1, vendorId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -1,6 +1,8 @@
 package com.lax.sme_manager.repository;
 
 import com.lax.sme_manager.domain.Vendor;
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
 import com.lax.sme_manager.repository.model.VendorEntity;
 import com.lax.sme_manager.util.DatabaseManager;
 import com.lax.sme_manager.util.DateUtil;
@@ -28,7 +30,7 @@ public class VendorRepository {
 
         List<VendorEntity> list = new ArrayList<>();
 
-        try (Connection c = DatabaseManager.getConnection();
+        try (Connection c = DatabaseManager.getReadConnection();
                 Statement s = c.createStatement();
                 ResultSet rs = s.executeQuery(sql)) {
 
@@ -52,7 +54,7 @@ public class VendorRepository {
 
         List<Vendor> list = new ArrayList<>();
 
-        try (Connection c = DatabaseManager.getConnection();
+        try (Connection c = DatabaseManager.getReadConnection();
                 Statement s = c.createStatement();
                 ResultSet rs = s.executeQuery(sql)) {
 
@@ -70,7 +72,7 @@ public class VendorRepository {
     public Optional<VendorEntity> findById(int id) {
         String sql = "SELECT * FROM vendors WHERE id = ?";
 
-        try (Connection c = DatabaseManager.getConnection();
+        try (Connection c = DatabaseManager.getReadConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -85,7 +87,7 @@ public class VendorRepository {
     public Optional<VendorEntity> findByName(String name) {
         String sql = "SELECT * FROM vendors WHERE LOWER(name) = LOWER(?)";
 
-        try (Connection c = DatabaseManager.getConnection();
+        try (Connection c = DatabaseManager.getReadConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setString(1, name.trim());
@@ -103,6 +105,7 @@ public class VendorRepository {
                 (name, contact_person, address, phone,
                  email, notes, default_amount, created_at, updated_at)
                 VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                RETURNING id
                 """;
 
         try (Connection c = DatabaseManager.getConnection();
@@ -118,13 +121,11 @@ public class VendorRepository {
             ps.setObject(8, e.getCreatedAt());
             ps.setObject(9, e.getUpdatedAt());
 
-            ps.executeUpdate();
-
-            try (Statement s = c.createStatement();
-                    ResultSet rs = s.executeQuery("SELECT last_insert_rowid()")) {
+            try (ResultSet rs = ps.executeQuery()) {
                 rs.next();
                 e.setId(rs.getInt(1));
             }
+            EventBus.publish(new DomainEvent.VendorCreated(e));
             return e;
 
         } catch (SQLException ex) {
@@ -0,0 +1,10 @@
+package com.lax.sme_manager.repository.model;
+
+/**
+ * Scalar dashboard KPIs, fetched together in one query.
+ * - Bags/amount are over live purchases in the given today/week/month ranges
+ * - Cheque counts are all-time
+ */
+public record DashboardTotals(int bagsToday, int bagsThisWeek, int bagsThisMonth, double amountThisMonth,
+        int pendingCheques, int chequesClearingToday, int pendingClearing) {
+}
@@ -0,0 +1,19 @@
+package com.lax.sme_manager.repository.model;
+
+/**
+ * One row of the purchase history table: the purchase plus the vendor name
+ * projected by the history query's LEFT JOIN, so rendering a row never has to
+ * look the vendor up.
+ */
+public record PurchaseHistoryRow(PurchaseEntity purchase, String vendorName) {
+
+    public PurchaseHistoryRow {
+        if (vendorName == null) {
+            vendorName = "Unknown";
+        }
+    }
+
+    public Integer id() {
+        return purchase.getId();
+    }
+}
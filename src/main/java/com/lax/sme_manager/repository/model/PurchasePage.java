@@ -0,0 +1,47 @@
+package com.lax.sme_manager.repository.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of purchase history, fetched by keyset (seek) pagination.
+ * - Rows are ordered by (entry_date DESC, id DESC) and carry the vendor name
+ * - firstCursor / lastCursor are opaque tokens for the first and last row;
+ * pass lastCursor to get the next page and firstCursor (backward) to get the
+ * previous one
+ */
+public record PurchasePage(List<PurchaseHistoryRow> items, String firstCursor, String lastCursor,
+        boolean hasNext, boolean hasPrevious) {
+
+    public static PurchasePage empty() {
+        return new PurchasePage(List.of(), null, null, false, false);
+    }
+
+    /**
+     * Position of a row in (entry_date, id) order. Only the repository looks
+     * inside a cursor.
+     */
+    public record Cursor(LocalDate entryDate, int id) {
+
+        public static Cursor of(PurchaseEntity entity) {
+            return new Cursor(entity.getEntryDate(), entity.getId());
+        }
+
+        public String encode() {
+            String raw = entryDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                return new Cursor(LocalDate.parse(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+            }
+        }
+    }
+}
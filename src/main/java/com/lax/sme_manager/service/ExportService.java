@@ -5,7 +5,8 @@ import com.lax.sme_manager.repository.VendorRepository;
 import com.lax.sme_manager.domain.Vendor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,12 +18,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service to export purchase data to professional Excel (.xlsx).
  */
 public class ExportService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExportService.class);
+    private static final int ROW_WINDOW = 200; // rows kept in memory while writing
     private final VendorRepository vendorRepository;
 
     public ExportService(VendorRepository vendorRepository) {
@@ -48,14 +51,26 @@ public class ExportService {
 
     public void exportToExcel(List<PurchaseEntity> purchases, File file, List<String> selectedColumns)
             throws Exception {
+        exportToExcel(purchases.stream(), file, selectedColumns);
+    }
+
+    /**
+     * Write rows as they come off the stream (e.g.
+     * IPurchaseRepository.streamByDateRange). SXSSF keeps only a small window of
+     * rows in memory, so heap use stays flat however many rows are exported.
+     * The caller owns (and closes) the stream.
+     */
+    public void exportToExcel(Stream<PurchaseEntity> purchases, File file, List<String> selectedColumns)
+            throws Exception {
         Map<Integer, String> vendorMap = vendorRepository.findAllVendors()
                 .stream()
                 .collect(Collectors.toMap(Vendor::getId, Vendor::getName));
 
         DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Purchase History");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW)) {
+            SXSSFSheet sheet = workbook.createSheet("Purchase History");
+            sheet.trackAllColumnsForAutoSizing(); // widths are measured as rows are flushed
 
             // Print Setup: A4 Landscape
             sheet.getPrintSetup().setPaperSize(PrintSetup.A4_PAPERSIZE);
@@ -105,7 +120,7 @@ public class ExportService {
             int totalBags = 0;
             double totalAmount = 0;
 
-            for (PurchaseEntity p : purchases) {
+            for (PurchaseEntity p : (Iterable<PurchaseEntity>) purchases::iterator) {
                 Row row = sheet.createRow(rowIdx++);
                 for (int i = 0; i < activeHeaders.size(); i++) {
                     String h = activeHeaders.get(i);
@@ -175,6 +190,8 @@ public class ExportService {
             // Write File
             try (FileOutputStream out = new FileOutputStream(file)) {
                 workbook.write(out);
+            } finally {
+                workbook.dispose(); // delete the temp files backing flushed rows
             }
 
             LOGGER.info("Exported EXCEL report to {} with {} columns", file.getAbsolutePath(), activeHeaders.size());
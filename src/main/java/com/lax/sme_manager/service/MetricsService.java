@@ -1,6 +1,9 @@
 package com.lax.sme_manager.service;
 
+import com.lax.sme_manager.event.DomainEvent;
 import com.lax.sme_manager.repository.IPurchaseRepository;
+import com.lax.sme_manager.repository.model.DashboardTotals;
+import com.lax.sme_manager.repository.model.PurchaseEntity;
 import lombok.Builder;
 import lombok.Data;
 import org.slf4j.Logger;
@@ -9,17 +12,33 @@ import org.slf4j.LoggerFactory;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service to calculate Dashboard Metrics.
  * Handles date ranges and delegates to Repository.
+ * - Results are cached in memory: repeat dashboard visits don't touch the DB
+ * - KPI totals are dropped by purchase writes that can affect them (see
+ * onPurchaseWritten), by day rollover and by a TTL (covers raw SQL writes that
+ * bypass the repository)
+ * - Trend charts are not write-invalidated; they refresh on a short TTL
  */
 public class MetricsService {
     private static final Logger LOGGER = LoggerFactory.getLogger(MetricsService.class);
+    private static final long TOTALS_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long TRENDS_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
     private final IPurchaseRepository purchaseRepository;
     private final com.lax.sme_manager.repository.ITrendRepository trendRepository;
 
+    private final Object cacheLock = new Object();
+    private volatile CachedTotals cachedTotals;
+    private volatile CachedTrends cachedTrends;
+    // Bumped by every invalidation; a load that raced with one is not cached
+    private long totalsGeneration = 0;
+
     public MetricsService(IPurchaseRepository purchaseRepository,
             com.lax.sme_manager.repository.ITrendRepository trendRepository) {
         this.purchaseRepository = purchaseRepository;
@@ -45,9 +64,14 @@ public class MetricsService {
     }
 
     /**
-     * Fetch all dashboard metrics asynchronously.
+     * Fetch all dashboard metrics asynchronously. Completes immediately when
+     * everything is cached.
      */
     public CompletableFuture<DashboardMetrics> getDashboardMetricsAsync() {
+        LocalDate today = LocalDate.now();
+        if (isFresh(cachedTotals, today, TOTALS_TTL_NANOS) && isFresh(cachedTrends, today, TRENDS_TTL_NANOS)) {
+            return CompletableFuture.completedFuture(getDashboardMetrics());
+        }
         return CompletableFuture.supplyAsync(this::getDashboardMetrics);
     }
 
@@ -61,43 +85,136 @@ public class MetricsService {
         LocalDate startOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
         LocalDate endOfMonth = today.with(TemporalAdjusters.lastDayOfMonth());
 
-        LOGGER.debug("Calculating metrics for Today: {}, Week: {} to {}, Month: {} to {}",
-                today, startOfWeek, endOfWeek, startOfMonth, endOfMonth);
+        // Scalar KPIs (one query) and the three charts run concurrently on the
+        // read lane, so a cold snapshot costs a single round of I/O
+        CachedTotals totalsEntry = cachedTotals;
+        CompletableFuture<CachedTotals> totalsFuture;
+        if (isFresh(totalsEntry, today, TOTALS_TTL_NANOS)) {
+            totalsFuture = CompletableFuture.completedFuture(totalsEntry);
+        } else {
+            LOGGER.debug("Calculating metrics for Today: {}, Week: {} to {}, Month: {} to {}",
+                    today, startOfWeek, endOfWeek, startOfMonth, endOfMonth);
+            totalsFuture = CompletableFuture.supplyAsync(
+                    () -> loadTotals(today, startOfWeek, endOfWeek, startOfMonth, endOfMonth));
+        }
+
+        CachedTrends trendsEntry = cachedTrends;
+        if (!isFresh(trendsEntry, today, TRENDS_TTL_NANOS)) {
+            trendsEntry = loadTrends(today);
+        }
+
+        DashboardTotals totals = totalsFuture.join().totals();
+
+        // Avg Rate (Month)
+        double avgRate = (totals.bagsThisMonth() > 0) ? (totals.amountThisMonth() / totals.bagsThisMonth()) : 0.0;
+
+        return DashboardMetrics.builder()
+                .bagsToday(totals.bagsToday())
+                .bagsThisWeek(totals.bagsThisWeek())
+                .bagsThisMonth(totals.bagsThisMonth())
+                .amountThisMonth(totals.amountThisMonth())
+                .unpaidChequesTotal(totals.pendingCheques())
+                .avgRateThisMonth(avgRate)
+                .chequesClearingToday(totals.chequesClearingToday())
+                .pendingClearingTotal(totals.pendingClearing())
+                .weeklyBagsTrend(trendsEntry.weeklyBagsTrend())
+                .paymentDistribution(trendsEntry.paymentDistribution())
+                .topVendors(trendsEntry.topVendors())
+                .build();
+    }
+
+    /**
+     * Called after a purchase write is committed (entity null: rows unknown). Drops the cached KPI totals
+     * if the write can change them: unknown rows (null), an entry dated in the
+     * current week/month, or a cheque/PAID entry (the cheque counts are
+     * all-time). Back-dated cash entries leave the cache alone.
+     */
+    public void onPurchaseWritten(PurchaseEntity entity) {
+        if (entity != null && !affectsTotals(entity, LocalDate.now())) {
+            return;
+        }
+        synchronized (cacheLock) {
+            totalsGeneration++;
+            cachedTotals = null;
+        }
+    }
+
+    /**
+     * EventBus adapter: maps purchase change events onto onPurchaseWritten.
+     * Only new entries are checked; an edit may have moved the entry out of
+     * this week/month or off CHEQUE/PAID, which the saved row alone can't show.
+     */
+    public void onDomainEvent(DomainEvent event) {
+        switch (event) {
+            case DomainEvent.PurchaseSaved saved -> onPurchaseWritten(saved.created() ? saved.purchase() : null);
+            case DomainEvent.VendorCreated created -> {
+                // No purchases changed
+            }
+            default -> onPurchaseWritten(null);
+        }
+    }
+
+    private static boolean affectsTotals(PurchaseEntity entity, LocalDate today) {
+        if ("CHEQUE".equalsIgnoreCase(entity.getPaymentMode()) || "PAID".equalsIgnoreCase(entity.getStatus())) {
+            return true;
+        }
+        LocalDate date = entity.getEntryDate();
+        if (date == null) {
+            return true;
+        }
+        LocalDate startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate endOfWeek = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        LocalDate startOfMonth = today.with(TemporalAdjusters.firstDayOfMonth());
+        LocalDate endOfMonth = today.with(TemporalAdjusters.lastDayOfMonth());
+        return !(date.isBefore(startOfWeek) && date.isBefore(startOfMonth))
+                && !(date.isAfter(endOfWeek) && date.isAfter(endOfMonth));
+    }
 
-        // 1. Bags Count
-        int bagsToday = purchaseRepository.getBagsCount(today, today);
-        int bagsWeek = purchaseRepository.getBagsCount(startOfWeek, endOfWeek);
-        int bagsMonth = purchaseRepository.getBagsCount(startOfMonth, endOfMonth);
+    private CachedTotals loadTotals(LocalDate today, LocalDate startOfWeek, LocalDate endOfWeek,
+            LocalDate startOfMonth, LocalDate endOfMonth) {
+        long generation;
+        synchronized (cacheLock) {
+            generation = totalsGeneration;
+        }
+        DashboardTotals totals = purchaseRepository.getDashboardTotals(today, startOfWeek, endOfWeek, startOfMonth,
+                endOfMonth);
+        CachedTotals entry = new CachedTotals(today, totals, System.nanoTime());
+        synchronized (cacheLock) {
+            if (generation == totalsGeneration) {
+                cachedTotals = entry;
+            }
+        }
+        return entry;
+    }
 
-        // 2. Amount (This Month)
-        double amountMonth = purchaseRepository.getTotalAmount(startOfMonth, endOfMonth);
+    private CachedTrends loadTrends(LocalDate today) {
+        CompletableFuture<Map<LocalDate, Integer>> weeklyFuture = CompletableFuture
+                .supplyAsync(trendRepository::getWeeklyBagsTrend);
+        CompletableFuture<Map<String, Integer>> paymentFuture = CompletableFuture
+                .supplyAsync(trendRepository::getPaymentModeDistribution);
+        Map<String, Integer> topVendors = trendRepository.getTopVendors(5);
+
+        CachedTrends entry = new CachedTrends(today, weeklyFuture.join(), paymentFuture.join(), topVendors,
+                System.nanoTime());
+        cachedTrends = entry;
+        return entry;
+    }
 
-        // 3. Unpaid Cheques (Total All-time)
-        // Count all entries where payment is CHEQUE but status is not PAID
-        int unpaidCheques = purchaseRepository.countPendingCheques(LocalDate.of(2000, 1, 1),
-                LocalDate.of(2100, 12, 31));
+    private static boolean isFresh(CachedEntry entry, LocalDate today, long ttlNanos) {
+        return entry != null && entry.day().equals(today) && System.nanoTime() - entry.loadedAtNanos() < ttlNanos;
+    }
 
-        // 4. Avg Rate (Month)
-        double avgRate = (bagsMonth > 0) ? (amountMonth / bagsMonth) : 0.0;
+    private interface CachedEntry {
+        LocalDate day();
 
-        // 5. Cheques Clearing Today (using cheque_date)
-        int clearingToday = purchaseRepository.countChequesByClearingDate(today);
+        long loadedAtNanos();
+    }
 
-        // 6. Pending Clearing (Total PAID but not yet CLEARED)
-        int pendingClearing = purchaseRepository.countPendingClearing();
+    private record CachedTotals(LocalDate day, DashboardTotals totals, long loadedAtNanos) implements CachedEntry {
+    }
 
-        return DashboardMetrics.builder()
-                .bagsToday(bagsToday)
-                .bagsThisWeek(bagsWeek)
-                .bagsThisMonth(bagsMonth)
-                .amountThisMonth(amountMonth)
-                .unpaidChequesTotal(unpaidCheques)
-                .avgRateThisMonth(avgRate)
-                .chequesClearingToday(clearingToday)
-                .pendingClearingTotal(pendingClearing)
-                .weeklyBagsTrend(trendRepository.getWeeklyBagsTrend())
-                .paymentDistribution(trendRepository.getPaymentModeDistribution())
-                .topVendors(trendRepository.getTopVendors(5))
-                .build();
+    private record CachedTrends(LocalDate day, Map<LocalDate, Integer> weeklyBagsTrend,
+            Map<String, Integer> paymentDistribution, Map<String, Integer> topVendors, long loadedAtNanos)
+            implements CachedEntry {
     }
 }
@@ -1,8 +1,12 @@
 package com.lax.sme_manager.service;
 
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
 import com.lax.sme_manager.repository.PurchaseRepository;
 import com.lax.sme_manager.repository.VendorRepository;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchaseHistoryRow;
+import com.lax.sme_manager.repository.model.PurchasePage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,7 +14,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for purchase history with advanced filtering, pagination, and
@@ -18,7 +24,7 @@ import java.util.List;
  * 
  * Design Decisions:
  * - Filtering happens at DB level (not in-memory) for large datasets
- * - Pagination prevents loading all records into memory
+ * - Keyset pagination: every page costs the same as page 1
  * - Async loading via background threads (optional)
  * - Caching of recent records only
  */
@@ -28,16 +34,30 @@ public class PurchaseHistoryService {
     private final PurchaseRepository purchaseRepository;
     private final VendorRepository vendorRepository;
     private static final int PAGE_SIZE = 50; // Records per page
+    private static final int RECENT_PURCHASES_SIZE = 64; // Recently opened detail/edit entities
+
+    // Access-ordered LRU; guarded by its own monitor
+    private final Map<Integer, PurchaseEntity> recentPurchases = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, PurchaseEntity> eldest) {
+            return size() > RECENT_PURCHASES_SIZE;
+        }
+    };
+    // Bumped on every invalidation so a lookup that raced a write doesn't cache the old row
+    private long recentPurchasesGeneration;
 
     public PurchaseHistoryService(PurchaseRepository purchaseRepository, VendorRepository vendorRepository) {
         this.purchaseRepository = purchaseRepository;
         this.vendorRepository = vendorRepository;
+        EventBus.subscribe(DomainEvent.class, this::onDomainEvent);
     }
 
     /**
-     * Fetch purchase history with filtering and pagination
+     * Fetch one page of purchase history with filtering and keyset pagination.
+     * Pass null for the first page, page.lastCursor() for the next page and
+     * page.firstCursor() with backward = true for the previous one.
      */
-    public List<PurchaseEntity> fetchPurchases(
+    public PurchasePage fetchPurchases(
             LocalDate startDate,
             LocalDate endDate,
             List<Integer> vendorIds,
@@ -45,28 +65,48 @@ public class PurchaseHistoryService {
             BigDecimal maxAmount,
             Boolean chequeIssued,
             String searchQuery,
-            int pageNumber) {
+            String cursor,
+            boolean backward) {
 
         try {
-            LOGGER.info("Fetching purchases - Page: {}, Vendors: {}, Range: {} to {}, Search: {}",
-                    pageNumber, vendorIds, startDate, endDate, searchQuery);
-
-            int offset = pageNumber * PAGE_SIZE;
+            LOGGER.info("Fetching purchases - Cursor: {} ({}), Vendors: {}, Range: {} to {}, Search: {}",
+                    cursor, backward ? "prev" : "next", vendorIds, startDate, endDate, searchQuery);
 
-            // Fetch natively filtered and paginated results from DB
-            List<PurchaseEntity> filtered = purchaseRepository.findFilteredPurchases(
+            // Fetch natively filtered results from DB, seeking from the cursor
+            PurchasePage page = purchaseRepository.findFilteredPurchases(
                     startDate, endDate, vendorIds, minAmount, maxAmount, chequeIssued,
-                    searchQuery, PAGE_SIZE, offset);
+                    searchQuery, cursor, backward, PAGE_SIZE);
 
-            LOGGER.debug("Loaded: {} purchases for page {}", filtered.size(), pageNumber);
-            return filtered;
+            LOGGER.debug("Loaded: {} purchases (hasNext={}, hasPrevious={})",
+                    page.items().size(), page.hasNext(), page.hasPrevious());
+            return page;
 
         } catch (Exception e) {
             LOGGER.error("Error fetching purchases with filters", e);
-            return new ArrayList<>();
+            return PurchasePage.empty();
         }
     }
 
+    /**
+     * Every purchase matching the filters, streamed for export. Must be closed.
+     */
+    public java.util.stream.Stream<PurchaseEntity> streamPurchases(
+            LocalDate startDate,
+            LocalDate endDate,
+            List<Integer> vendorIds,
+            BigDecimal minAmount,
+            BigDecimal maxAmount,
+            Boolean chequeIssued,
+            String searchQuery,
+            int fetchSize) {
+        return purchaseRepository.streamFiltered(startDate, endDate, vendorIds, minAmount, maxAmount,
+                chequeIssued, searchQuery, fetchSize);
+    }
+
+    public int getPageSize() {
+        return PAGE_SIZE;
+    }
+
     /**
      * Get total filtered record count (for pagination UI)
      */
@@ -93,7 +133,9 @@ public class PurchaseHistoryService {
      */
     public List<PurchaseEntity> getPurchasesToday() {
         LocalDate today = LocalDate.now();
-        return fetchPurchases(today, today, null, null, null, null, null, 0);
+        return fetchPurchases(today, today, null, null, null, null, null, null, false).items().stream()
+                .map(PurchaseHistoryRow::purchase)
+                .toList();
     }
 
     /**
@@ -102,18 +144,34 @@ public class PurchaseHistoryService {
     public List<PurchaseEntity> getPurchasesLastNDays(int days) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minus(days, ChronoUnit.DAYS);
-        return fetchPurchases(startDate, endDate, null, null, null, null, null, 0);
+        return fetchPurchases(startDate, endDate, null, null, null, null, null, null, false).items().stream()
+                .map(PurchaseHistoryRow::purchase)
+                .toList();
     }
 
     /**
-     * Get single purchase with vendor details
+     * Single purchase for the detail / edit views: primary-key lookup, served from
+     * a small LRU of recently opened entries until a write touches them.
      */
     public PurchaseEntity getPurchaseById(int id) {
+        long generation;
+        synchronized (recentPurchases) {
+            PurchaseEntity cached = recentPurchases.get(id);
+            if (cached != null) {
+                return cached;
+            }
+            generation = recentPurchasesGeneration;
+        }
         try {
-            return purchaseRepository.findAll().stream()
-                    .filter(p -> p.getId() == id)
-                    .findFirst()
-                    .orElse(null);
+            PurchaseEntity purchase = purchaseRepository.findById(id).orElse(null);
+            if (purchase != null) {
+                synchronized (recentPurchases) {
+                    if (generation == recentPurchasesGeneration) {
+                        recentPurchases.put(id, purchase);
+                    }
+                }
+            }
+            return purchase;
         } catch (Exception e) {
             LOGGER.error("Error fetching purchase by ID: {}", id, e);
             return null;
@@ -134,10 +192,8 @@ public class PurchaseHistoryService {
         if (ids == null || ids.isEmpty())
             return;
         try {
-            for (Integer id : ids) {
-                purchaseRepository.delete(id);
-            }
-            LOGGER.info("Soft-deleted {} purchases", ids.size());
+            int deleted = purchaseRepository.softDeleteAll(ids);
+            LOGGER.info("Soft-deleted {} purchases", deleted);
         } catch (Exception e) {
             LOGGER.error("Error bulk soft-deleting purchases", e);
             throw e;
@@ -154,11 +210,55 @@ public class PurchaseHistoryService {
         }
     }
 
+    /**
+     * Bulk status change (e.g. clearing a run of cheques) as one set-based update.
+     */
+    public void updateStatus(List<Integer> ids, String status) {
+        if (ids == null || ids.isEmpty())
+            return;
+        try {
+            int updated = purchaseRepository.updateStatusAll(ids, status);
+            LOGGER.info("Updated {} purchases to status: {}", updated, status);
+        } catch (Exception e) {
+            LOGGER.error("Error bulk updating status to {}", status, e);
+            throw e;
+        }
+    }
+
+    /**
+     * EventBus handler: drops cached entities for any purchase that was written.
+     */
+    private void onDomainEvent(DomainEvent event) {
+        switch (event) {
+            case DomainEvent.PurchaseSaved saved -> evictRecent(List.of(saved.purchase().getId()));
+            case DomainEvent.PurchaseDeleted deleted -> evictRecent(deleted.ids());
+            case DomainEvent.PurchaseRestored restored -> evictRecent(restored.ids());
+            case DomainEvent.StatusChanged changed -> evictRecent(changed.ids());
+            case DomainEvent.ChequesIssued issued -> evictRecent(issued.ids());
+            case DomainEvent.PurchasesArchived archived -> evictRecent(null);
+            case DomainEvent.VendorCreated created -> {
+                // No purchases changed
+            }
+        }
+    }
+
+    /**
+     * @param ids purchases to drop, or null to clear the whole cache
+     */
+    private void evictRecent(List<Integer> ids) {
+        synchronized (recentPurchases) {
+            recentPurchasesGeneration++;
+            if (ids == null) {
+                recentPurchases.clear();
+            } else {
+                ids.forEach(recentPurchases::remove);
+            }
+        }
+    }
+
     public String getVendorName(int vendorId) {
-        return vendorRepository.findAllVendors().stream()
-                .filter(v -> v.getId() == vendorId)
-                .map(com.lax.sme_manager.domain.Vendor::getName)
-                .findFirst()
+        return vendorRepository.findById(vendorId)
+                .map(com.lax.sme_manager.repository.model.VendorEntity::getName)
                 .orElse("Unknown Vendor");
     }
 
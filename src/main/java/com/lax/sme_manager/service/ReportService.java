@@ -8,14 +8,23 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Accountant reports (Excel / PDF). The Stream overloads write rows as they
+ * are read, so heap use doesn't grow with the date range; the caller owns and
+ * closes the stream.
+ */
 public class ReportService {
+    private static final int ROW_WINDOW = 200; // rows SXSSF keeps in memory
+
     private final VendorCache vendorCache;
 
     public ReportService(VendorCache vendorCache) {
@@ -23,8 +32,13 @@ public class ReportService {
     }
 
     public void exportToExcel(List<PurchaseEntity> data, File file) throws Exception {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Monthly Purchase Report");
+        exportToExcel(data.stream(), file);
+    }
+
+    public void exportToExcel(Stream<PurchaseEntity> data, File file) throws Exception {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW)) {
+            SXSSFSheet sheet = workbook.createSheet("Monthly Purchase Report");
+            sheet.trackAllColumnsForAutoSizing();
 
             // Header Style
             CellStyle headerStyle = workbook.createCellStyle();
@@ -51,7 +65,7 @@ public class ReportService {
             BigDecimal totalGrand = BigDecimal.ZERO;
             DateTimeFormatter df = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-            for (PurchaseEntity p : data) {
+            for (PurchaseEntity p : (Iterable<PurchaseEntity>) data::iterator) {
                 Row row = sheet.createRow(rowIdx++);
                 Vendor v = vendorCache.findById(p.getVendorId());
                 String vendorName = (v != null) ? v.getName() : "Unknown";
@@ -88,11 +102,17 @@ public class ReportService {
 
             try (FileOutputStream fileOut = new FileOutputStream(file)) {
                 workbook.write(fileOut);
+            } finally {
+                workbook.dispose();
             }
         }
     }
 
     public void exportToPDF(List<PurchaseEntity> data, File file) throws Exception {
+        exportToPDF(data.stream(), file);
+    }
+
+    public void exportToPDF(Stream<PurchaseEntity> data, File file) throws Exception {
         try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage();
             document.addPage(page);
@@ -104,12 +124,6 @@ public class ReportService {
                 contentStream.showText("Monthly Accountant Report");
                 contentStream.endText();
 
-                contentStream.beginText();
-                contentStream.setFont(PDType1Font.HELVETICA, 10);
-                contentStream.newLineAtOffset(50, 730);
-                contentStream.showText("Total Transactions: " + data.size());
-                contentStream.endText();
-
                 // Simple Table-like view (Minimalist for now)
                 float y = 700;
                 contentStream.beginText();
@@ -122,10 +136,13 @@ public class ReportService {
                 contentStream.setFont(PDType1Font.HELVETICA, 9);
                 DateTimeFormatter df = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-                for (PurchaseEntity p : data) {
+                int transactionCount = 0;
+                for (PurchaseEntity p : (Iterable<PurchaseEntity>) data::iterator) {
+                    transactionCount++;
                     if (y < 50) {
-                        // Support for multiple pages could be added here, but keep it simple for now
-                        break;
+                        // Support for multiple pages could be added here, but keep it simple for
+                        // now; keep reading so the transaction count is complete
+                        continue;
                     }
                     Vendor v = vendorCache.findById(p.getVendorId());
                     String vName = (v != null)
@@ -140,6 +157,13 @@ public class ReportService {
                     contentStream.endText();
                     y -= 15;
                 }
+
+                // Drawn after the rows: the count is only known once the stream is read
+                contentStream.beginText();
+                contentStream.setFont(PDType1Font.HELVETICA, 10);
+                contentStream.newLineAtOffset(50, 730);
+                contentStream.showText("Total Transactions: " + transactionCount);
+                contentStream.endText();
             }
 
             document.save(file);
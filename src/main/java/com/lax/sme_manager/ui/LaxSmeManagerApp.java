@@ -2,6 +2,7 @@ package com.lax.sme_manager.ui;
 
 import com.lax.sme_manager.repository.VendorRepository;
 import com.lax.sme_manager.util.VendorCache;
+import javafx.event.Event;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -11,7 +12,10 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import com.lax.sme_manager.util.BackupService;
+import com.lax.sme_manager.util.BackupScheduler;
+import com.lax.sme_manager.util.DatabaseManager;
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
 import com.lax.sme_manager.repository.PurchaseRepository;
 import com.lax.sme_manager.service.MetricsService;
 import com.lax.sme_manager.service.PurchaseHistoryService;
@@ -69,6 +73,10 @@ public class LaxSmeManagerApp {
     private RecycleBinView recycleBinView;
     private Label queueCountBadge;
 
+    // Longest a close waits for a running backup; an unfinished one leaves only
+    // temporary files, never a broken snapshot
+    private static final long CLOSE_BACKUP_TIMEOUT_MS = 30_000;
+
     public LaxSmeManagerApp(Stage stage) {
         this.stage = stage;
 
@@ -81,6 +89,9 @@ public class LaxSmeManagerApp {
         com.lax.sme_manager.repository.TrendRepository trendRepository = new com.lax.sme_manager.repository.TrendRepository();
         this.historyService = new PurchaseHistoryService(purchaseRepository, vendorRepository);
         this.metricsService = new MetricsService(purchaseRepository, trendRepository);
+        EventBus.subscribe(DomainEvent.class, metricsService::onDomainEvent);
+        EventBus.subscribe(DomainEvent.VendorCreated.class, e -> javafx.application.Platform.runLater(
+                () -> vendorCache.addVendor(new Vendor(e.vendor().getId(), e.vendor().getName()))));
 
         // Show login dialog FIRST (blocks until success)
         showLoginDialog();
@@ -92,6 +103,7 @@ public class LaxSmeManagerApp {
 
         initialize();
         stage.show();
+        BackupScheduler.getInstance().start();
     }
 
     private void initialize() {
@@ -115,10 +127,11 @@ public class LaxSmeManagerApp {
         // Set App Icon
         setAppIcon(stage);
 
-        // Backup on close
+        // Close: backups run in the background (BackupScheduler); only wait for
+        // one that is already running
         stage.setOnCloseRequest(e -> {
-            new BackupService().performBackup();
-            System.exit(0);
+            e.consume();
+            closeAfterRunningBackup();
         });
 
         stage.show();
@@ -376,13 +389,62 @@ public class LaxSmeManagerApp {
     }
 
     private void runSilentBackup() {
-        new Thread(() -> {
-            try {
-                new com.lax.sme_manager.util.BackupService().performBackup();
-            } catch (Exception e) {
-                System.err.println("Silent backup failed: " + e.getMessage());
-            }
-        }).start();
+        BackupScheduler.getInstance().backupNow().exceptionally(e -> {
+            System.err.println("Silent backup failed: " + e.getMessage());
+            return null;
+        });
+    }
+
+    private void closeAfterRunningBackup() {
+        BackupScheduler scheduler = BackupScheduler.getInstance();
+        if (!scheduler.isRunning()) {
+            exitApp();
+            return;
+        }
+
+        Stage waitStage = new Stage();
+        waitStage.initOwner(stage);
+        waitStage.initModality(javafx.stage.Modality.APPLICATION_MODAL);
+        waitStage.setTitle("Closing");
+        waitStage.setResizable(false);
+        waitStage.setOnCloseRequest(Event::consume);
+
+        Label status = new Label("Finishing backup before closing...");
+        status.setStyle("-fx-font-size: 13px; -fx-text-fill: #334155;");
+        ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        progressBar.setPrefHeight(10);
+        progressBar.setStyle("-fx-accent: #0D9488;");
+        Button btnCloseNow = new Button("Close Now");
+        btnCloseNow.setOnAction(ev -> exitApp());
+        HBox footer = new HBox(btnCloseNow);
+        footer.setAlignment(Pos.CENTER_RIGHT);
+
+        VBox content = new VBox(12, status, progressBar, footer);
+        content.setPadding(new Insets(20));
+        content.setPrefWidth(380);
+        waitStage.setScene(new Scene(content));
+
+        javafx.animation.Timeline poll = new javafx.animation.Timeline(
+                new javafx.animation.KeyFrame(javafx.util.Duration.millis(200), ev -> {
+                    double p = scheduler.getProgress();
+                    progressBar.setProgress(p < 0 ? ProgressBar.INDETERMINATE_PROGRESS : p);
+                }));
+        poll.setCycleCount(javafx.animation.Animation.INDEFINITE);
+        poll.play();
+
+        Thread waiter = new Thread(() -> {
+            scheduler.awaitRunning(CLOSE_BACKUP_TIMEOUT_MS);
+            javafx.application.Platform.runLater(this::exitApp);
+        }, "close-wait");
+        waiter.setDaemon(true);
+        waiter.start();
+        waitStage.show();
+    }
+
+    private void exitApp() {
+        DatabaseManager.shutdown();
+        System.exit(0);
     }
 
     private void handleLogout() {
@@ -482,7 +544,7 @@ public class LaxSmeManagerApp {
     private void showPurchaseHistory() {
         if (purchaseHistoryView == null) {
             purchaseHistoryView = new PurchaseHistoryView(
-                    new PurchaseHistoryViewModel(historyService), vendorRepository, currentUser);
+                    new PurchaseHistoryViewModel(historyService, vendorCache), vendorRepository, currentUser);
             purchaseHistoryView.setOnPurchaseSelected(this::showPurchaseDetailsDialog);
             purchaseHistoryView.setOnPurchaseEdit(this::showPurchaseEditDialog);
         } else {
@@ -492,7 +554,8 @@ public class LaxSmeManagerApp {
         contentArea.getChildren().add(purchaseHistoryView);
     }
 
-    private void showPurchaseDetailsDialog(PurchaseEntity purchase) {
+    private void showPurchaseDetailsDialog(PurchaseEntity selected) {
+        PurchaseEntity purchase = latestPurchase(selected);
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Purchase Details - #" + purchase.getId());
         dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
@@ -510,7 +573,8 @@ public class LaxSmeManagerApp {
         dialog.showAndWait();
     }
 
-    private void showPurchaseEditDialog(PurchaseEntity purchase) {
+    private void showPurchaseEditDialog(PurchaseEntity selected) {
+        PurchaseEntity purchase = latestPurchase(selected);
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Edit Purchase - #" + purchase.getId());
         dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
@@ -529,6 +593,12 @@ public class LaxSmeManagerApp {
         dialog.showAndWait();
     }
 
+    /** Re-read the row by id (LRU-cached) so dialogs never open a stale table row */
+    private PurchaseEntity latestPurchase(PurchaseEntity selected) {
+        PurchaseEntity latest = historyService.getPurchaseById(selected.getId());
+        return latest != null ? latest : selected;
+    }
+
     // private void showReports() {
     // if (reportsView == null) {
     // reportsView = new VBox();
@@ -1,6 +1,7 @@
 package com.lax.sme_manager.ui.view;
 
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchaseHistoryRow;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableCell;
@@ -13,7 +14,7 @@ import java.util.function.Consumer;
 /**
  * Modern Action Buttons for TableView with soft-tinted backgrounds.
  */
-public class ActionButtonsTableCell extends TableCell<PurchaseEntity, Void> {
+public class ActionButtonsTableCell extends TableCell<PurchaseHistoryRow, Void> {
 
     private final HBox container = new HBox(10);
     private final Button viewBtn;
@@ -24,7 +25,7 @@ public class ActionButtonsTableCell extends TableCell<PurchaseEntity, Void> {
     public ActionButtonsTableCell(
             Consumer<PurchaseEntity> onView,
             Consumer<PurchaseEntity> onEdit,
-            Consumer<PurchaseEntity> onPrint,
+            Consumer<PurchaseHistoryRow> onPrint,
             Consumer<PurchaseEntity> onDelete,
             Consumer<PurchaseEntity> onClear) {
 
@@ -55,7 +56,7 @@ public class ActionButtonsTableCell extends TableCell<PurchaseEntity, Void> {
 
         viewBtn.setOnAction(e -> applyAction(onView));
         editBtn.setOnAction(e -> applyAction(onEdit));
-        printBtn.setOnAction(e -> applyAction(onPrint));
+        printBtn.setOnAction(e -> applyRowAction(onPrint));
         deleteBtn.setOnAction(e -> applyAction(onDelete));
         clearBtn.setOnAction(e -> applyAction(onClear));
 
@@ -64,9 +65,15 @@ public class ActionButtonsTableCell extends TableCell<PurchaseEntity, Void> {
     }
 
     private void applyAction(Consumer<PurchaseEntity> action) {
-        PurchaseEntity p = getTableView().getItems().get(getIndex());
-        if (p != null && action != null) {
-            action.accept(p);
+        if (action != null) {
+            applyRowAction(row -> action.accept(row.purchase()));
+        }
+    }
+
+    private void applyRowAction(Consumer<PurchaseHistoryRow> action) {
+        PurchaseHistoryRow row = getTableView().getItems().get(getIndex());
+        if (row != null && action != null) {
+            action.accept(row);
         }
     }
 
@@ -4,6 +4,7 @@ import com.lax.sme_manager.repository.PurchaseRepository;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
 import com.lax.sme_manager.ui.component.AlertUtils;
 import com.lax.sme_manager.ui.theme.LaxTheme;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -14,10 +15,14 @@ import javafx.scene.layout.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ArchiveExplorerView extends VBox {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final PurchaseRepository repo = new PurchaseRepository();
     private final TableView<PurchaseEntity> table = new TableView<>();
     private final ObservableList<PurchaseEntity> masterData = FXCollections.observableArrayList();
@@ -58,8 +63,8 @@ public class ArchiveExplorerView extends VBox {
 
         fromDate.setPromptText("From Date");
         toDate.setPromptText("To Date");
-        fromDate.valueProperty().addListener((obs, old, n) -> applyFilters());
-        toDate.valueProperty().addListener((obs, old, n) -> applyFilters());
+        fromDate.valueProperty().addListener((obs, old, n) -> refreshData());
+        toDate.valueProperty().addListener((obs, old, n) -> refreshData());
 
         Button btnRefresh = new Button("🔄 Refresh");
         btnRefresh.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.SECONDARY));
@@ -122,30 +127,38 @@ public class ArchiveExplorerView extends VBox {
         table.setPlaceholder(new Label("No archived records found."));
     }
 
+    /**
+     * Stream archived rows off the cursor (background thread) and keep only
+     * the selected date range in memory; search then filters that in place.
+     */
     private void refreshData() {
-        masterData.setAll(repo.findAllArchived());
-        applyFilters();
+        LocalDate start = fromDate.getValue();
+        LocalDate end = toDate.getValue();
+        CompletableFuture.supplyAsync(() -> {
+            try (Stream<PurchaseEntity> archived = repo.streamAllArchived(STREAM_FETCH_SIZE)) {
+                return archived
+                        .filter(p -> (start == null || !p.getEntryDate().isBefore(start))
+                                && (end == null || !p.getEntryDate().isAfter(end)))
+                        .collect(Collectors.toList());
+            }
+        }).whenComplete((rows, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                AlertUtils.showError("Archive", "Could not load archived records: " + cause.getMessage());
+                return;
+            }
+            masterData.setAll(rows);
+            applyFilters();
+        }));
     }
 
     private void applyFilters() {
         String query = searchField.getText().toLowerCase();
-        LocalDate start = fromDate.getValue();
-        LocalDate end = toDate.getValue();
 
         List<PurchaseEntity> results = masterData.stream()
-                .filter(p -> {
-                    boolean matchesSearch = query.isEmpty() ||
-                            (p.getNotes() != null && p.getNotes().toLowerCase().contains(query)) ||
-                            (String.valueOf(p.getVendorId()).contains(query));
-
-                    boolean matchesDate = true;
-                    if (start != null && p.getEntryDate().isBefore(start))
-                        matchesDate = false;
-                    if (end != null && p.getEntryDate().isAfter(end))
-                        matchesDate = false;
-
-                    return matchesSearch && matchesDate;
-                })
+                .filter(p -> query.isEmpty() ||
+                        (p.getNotes() != null && p.getNotes().toLowerCase().contains(query)) ||
+                        (String.valueOf(p.getVendorId()).contains(query)))
                 .collect(Collectors.toList());
 
         filteredData.setAll(results);
@@ -460,14 +460,14 @@ public class ChequePreviewDialog extends Dialog<Void> {
     }
 
     private void markPurchaseAsPaid(int purchaseId, String chqNo) {
-        String sql = "UPDATE purchase_entries SET status = 'PAID', cheque_number = ?, cheque_date = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, chqNo);
-            stmt.setObject(2, java.time.LocalDate.now());
-            stmt.setInt(3, purchaseId);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
+        // Same path as batch printing: the writer lane, then StatusChanged for the
+        // history list, entity cache and dashboard
+        java.time.LocalDate chequeDate = chequeData.date() != null ? chequeData.date() : java.time.LocalDate.now();
+        try {
+            new com.lax.sme_manager.repository.PurchaseRepository().markChequesIssued(java.util.List.of(
+                    new ChequeData(chequeData.payeeName(), chequeData.amount(), chequeDate, chequeData.isAcPayee(),
+                            purchaseId, chqNo)));
+        } catch (RuntimeException e) {
             LOGGER.error("Failed to auto-reconcile purchase", e);
             javafx.application.Platform.runLater(() -> new Alert(Alert.AlertType.WARNING,
                     "Cheque printed but failed to update status: " + e.getMessage()).show());
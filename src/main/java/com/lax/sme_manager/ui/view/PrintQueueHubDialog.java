@@ -21,7 +21,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -406,20 +405,9 @@ public class PrintQueueHubDialog extends Dialog<Void> {
     }
 
     private void updatePurchasesInBatch(List<com.lax.sme_manager.dto.ChequeData> batch) {
-        String sql = "UPDATE purchase_entries SET status = 'PAID', cheque_number = ?, cheque_date = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            for (com.lax.sme_manager.dto.ChequeData data : batch) {
-                if (data.purchaseId() != null) {
-                    pstmt.setString(1, data.chequeNumber());
-                    pstmt.setObject(2, data.date());
-                    pstmt.setInt(3, data.purchaseId());
-                    pstmt.addBatch();
-                }
-            }
-            pstmt.executeBatch();
-        } catch (SQLException e) {
+        try {
+            new com.lax.sme_manager.repository.PurchaseRepository().markChequesIssued(batch);
+        } catch (RuntimeException e) {
             LOGGER.error("Failed to update purchases after batch print", e);
             javafx.application.Platform.runLater(() -> AlertUtils.showWarning("Update Warning",
                     "Cheques printed but some purchase records failed to update. Please check manually."));
@@ -3,6 +3,7 @@ package com.lax.sme_manager.ui.view;
 import com.lax.sme_manager.util.NumericTextFormatter;
 
 import com.lax.sme_manager.domain.Vendor;
+import com.lax.sme_manager.repository.model.PurchaseEntity;
 import com.lax.sme_manager.ui.component.UIComponents;
 import com.lax.sme_manager.ui.component.UIStyles;
 import com.lax.sme_manager.ui.theme.LaxTheme;
@@ -227,8 +228,10 @@ public class PurchaseEntryView extends VBox implements RefreshableView {
                 }
 
                 // Filter
+                // New list: after a reset the items ARE the cache's list, and
+                // setAll on them would overwrite the cache
                 List<Vendor> filtered = vendorCache.searchByName(newText);
-                comboBox.getItems().setAll(filtered);
+                comboBox.setItems(javafx.collections.FXCollections.observableArrayList(filtered));
 
                 // If the dropdown was hidden, show it
                 if (!comboBox.isShowing()) {
@@ -338,13 +341,14 @@ public class PurchaseEntryView extends VBox implements RefreshableView {
     private void handleSubmitAndPrint() {
         PurchaseEntryViewModel.ChequeSubmitResult result = viewModel.submitAndGetChequeData();
         if (result != null) {
-            // Open the Cheque Preview Dialog with the saved purchase data
+            // Open the Cheque Preview Dialog with the saved purchase
+            PurchaseEntity saved = result.purchase;
             com.lax.sme_manager.dto.ChequeData chequeData = new com.lax.sme_manager.dto.ChequeData(
                     result.vendorName,
-                    result.grandTotal,
-                    result.chequeDate,
+                    saved.getGrandTotal(),
+                    saved.getEntryDate() != null ? saved.getEntryDate() : LocalDate.now(),
                     true,
-                    result.purchaseId,
+                    saved.getId(),
                     null);
             new ChequePreviewDialog(chequeData, () -> {
             }, (viewModel.getCurrentUser() != null) ? viewModel.getCurrentUser().getId() : null).show();
@@ -3,6 +3,7 @@ package com.lax.sme_manager.ui.view;
 import com.lax.sme_manager.domain.Vendor;
 import com.lax.sme_manager.repository.VendorRepository;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchaseHistoryRow;
 import com.lax.sme_manager.service.ExportService;
 import com.lax.sme_manager.ui.component.UIStyles;
 import com.lax.sme_manager.ui.theme.LaxTheme;
@@ -33,12 +34,13 @@ import com.lax.sme_manager.ui.component.AlertUtils;
 
 public class PurchaseHistoryView extends VBox implements RefreshableView {
     private static final Logger LOGGER = LoggerFactory.getLogger(PurchaseHistoryView.class);
+    private static final int EXPORT_FETCH_SIZE = 500;
     private final PurchaseHistoryViewModel viewModel;
     private final VendorRepository vendorRepository;
     private final ExportService exportService;
     private Consumer<PurchaseEntity> onPurchaseSelected;
     private Consumer<PurchaseEntity> onPurchaseEdit;
-    private TableView<PurchaseEntity> purchaseTable;
+    private TableView<PurchaseHistoryRow> purchaseTable;
     private com.lax.sme_manager.domain.User currentUser;
 
     public PurchaseHistoryView(PurchaseHistoryViewModel viewModel, VendorRepository vendorRepository,
@@ -87,6 +89,11 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
                 "-fx-background-color: #0D9488; -fx-text-fill: white; -fx-font-weight: 700; -fx-padding: 10 20; -fx-background-radius: 8; -fx-cursor: hand;");
         btnBatchPrint.setOnAction(e -> handleBatchPrint());
 
+        Button btnClearSelected = new Button("Mark Cleared");
+        btnClearSelected.setStyle(
+                "-fx-background-color: #DCFCE7; -fx-text-fill: #15803D; -fx-font-weight: 700; -fx-padding: 10 20; -fx-background-radius: 8; -fx-cursor: hand; -fx-border-color: #86EFAC; -fx-border-radius: 8;");
+        btnClearSelected.setOnAction(e -> handleBulkClear());
+
         Button btnDeleteSelected = new Button("Delete Selected");
         btnDeleteSelected.setStyle(
                 "-fx-background-color: #FEE2E2; -fx-text-fill: #EF4444; -fx-font-weight: 700; -fx-padding: 10 20; -fx-background-radius: 8; -fx-cursor: hand; -fx-border-color: #FCA5A5; -fx-border-radius: 8;");
@@ -97,7 +104,7 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
                 .isNotEmpty(viewModel.selectedPurchases);
         bulkActions.visibleProperty().bind(hasSelection);
         bulkActions.managedProperty().bind(hasSelection);
-        bulkActions.getChildren().addAll(btnBatchPrint, btnDeleteSelected);
+        bulkActions.getChildren().addAll(btnBatchPrint, btnClearSelected, btnDeleteSelected);
 
         // Search Container
         HBox searchContainer = new HBox(10);
@@ -151,9 +158,9 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
         Label lblAmount = new Label("Total Amount: ₹0.00");
         lblAmount.setStyle("-fx-font-weight: bold; -fx-text-fill: " + LaxTheme.Colors.PRIMARY_TEAL + ";");
 
-        viewModel.purchaseList.addListener((javafx.collections.ListChangeListener<PurchaseEntity>) c -> {
-            int totalBags = viewModel.purchaseList.stream().mapToInt(PurchaseEntity::getBags).sum();
-            double totalAmount = viewModel.purchaseList.stream()
+        viewModel.purchaseList.addListener((javafx.collections.ListChangeListener<PurchaseHistoryRow>) c -> {
+            int totalBags = viewModel.purchaseList.stream().mapToInt(r -> r.purchase().getBags()).sum();
+            double totalAmount = viewModel.purchaseList.stream().map(PurchaseHistoryRow::purchase)
                     .mapToDouble(p -> p.getGrandTotal() != null ? p.getGrandTotal().doubleValue() : 0.0).sum();
             lblBags.setText("Total Bags: " + totalBags);
             lblAmount.setText("Total Amount: ₹" + String.format("%,.2f", totalAmount));
@@ -363,19 +370,19 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
     }
 
     @SuppressWarnings("unchecked")
-    private TableView<PurchaseEntity> createTable() {
-        TableView<PurchaseEntity> table = new TableView<>();
+    private TableView<PurchaseHistoryRow> createTable() {
+        TableView<PurchaseHistoryRow> table = new TableView<>();
         table.setItems(viewModel.purchaseList);
         table.setEditable(true);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         // Checkbox
-        TableColumn<PurchaseEntity, Boolean> selectCol = new TableColumn<>("");
+        TableColumn<PurchaseHistoryRow, Boolean> selectCol = new TableColumn<>("");
         CheckBox selectAll = new CheckBox();
         selectCol.setGraphic(selectAll);
         selectCol.setPrefWidth(40);
         selectCol.setCellValueFactory(data -> {
-            PurchaseEntity p = data.getValue();
+            PurchaseHistoryRow p = data.getValue();
             BooleanProperty prop = new SimpleBooleanProperty(viewModel.selectedPurchases.contains(p));
 
             // When user clicks individual checkbox -> update the shared list
@@ -389,7 +396,7 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
             });
 
             // When the shared list changes (e.g. Select All) -> update this checkbox
-            viewModel.selectedPurchases.addListener((javafx.collections.ListChangeListener<PurchaseEntity>) c -> {
+            viewModel.selectedPurchases.addListener((javafx.collections.ListChangeListener<PurchaseHistoryRow>) c -> {
                 boolean selected = viewModel.selectedPurchases.contains(p);
                 if (prop.get() != selected) {
                     Platform.runLater(() -> prop.set(selected));
@@ -408,32 +415,32 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
         });
 
         // Columns
-        TableColumn<PurchaseEntity, String> dateCol = new TableColumn<>("Date");
+        TableColumn<PurchaseHistoryRow, String> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(
-                d.getValue().getEntryDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
+                d.getValue().purchase().getEntryDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
 
-        TableColumn<PurchaseEntity, String> vendorCol = new TableColumn<>("Vendor");
+        TableColumn<PurchaseHistoryRow, String> vendorCol = new TableColumn<>("Vendor");
         vendorCol.setCellValueFactory(
-                d -> new javafx.beans.property.SimpleStringProperty(getVendorName(d.getValue().getVendorId())));
+                d -> new javafx.beans.property.SimpleStringProperty(d.getValue().vendorName()));
 
-        TableColumn<PurchaseEntity, Number> bagsCol = new TableColumn<>("Bags");
-        bagsCol.setCellValueFactory(d -> new javafx.beans.property.SimpleIntegerProperty(d.getValue().getBags()));
+        TableColumn<PurchaseHistoryRow, Number> bagsCol = new TableColumn<>("Bags");
+        bagsCol.setCellValueFactory(d -> new javafx.beans.property.SimpleIntegerProperty(d.getValue().purchase().getBags()));
 
-        TableColumn<PurchaseEntity, String> rateCol = new TableColumn<>("Rate");
+        TableColumn<PurchaseHistoryRow, String> rateCol = new TableColumn<>("Rate");
         rateCol.setCellValueFactory(
-                d -> new javafx.beans.property.SimpleStringProperty(String.format("%.2f", d.getValue().getRate())));
+                d -> new javafx.beans.property.SimpleStringProperty(String.format("%.2f", d.getValue().purchase().getRate())));
 
-        TableColumn<PurchaseEntity, String> amountCol = new TableColumn<>("Amount");
+        TableColumn<PurchaseHistoryRow, String> amountCol = new TableColumn<>("Amount");
         amountCol.setPrefWidth(120);
         amountCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(
-                String.format("₹%,.2f", d.getValue().getGrandTotal())));
+                String.format("₹%,.2f", d.getValue().purchase().getGrandTotal())));
 
-        TableColumn<PurchaseEntity, String> chequeCol = new TableColumn<>("Cheque No");
+        TableColumn<PurchaseHistoryRow, String> chequeCol = new TableColumn<>("Cheque No");
         chequeCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(
-                d.getValue().getChequeNumber() != null ? d.getValue().getChequeNumber() : "-"));
+                d.getValue().purchase().getChequeNumber() != null ? d.getValue().purchase().getChequeNumber() : "-"));
 
-        TableColumn<PurchaseEntity, String> statusCol = new TableColumn<>("Status");
-        statusCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(d.getValue().getStatus()));
+        TableColumn<PurchaseHistoryRow, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(d.getValue().purchase().getStatus()));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -451,13 +458,13 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
             }
         });
 
-        TableColumn<PurchaseEntity, String> userCol = new TableColumn<>("Captured By");
+        TableColumn<PurchaseHistoryRow, String> userCol = new TableColumn<>("Captured By");
         userCol.setCellValueFactory(d -> new javafx.beans.property.SimpleStringProperty(
-                d.getValue().getCreatedByUser() != null ? d.getValue().getCreatedByUser().toUpperCase() : "-"));
+                d.getValue().purchase().getCreatedByUser() != null ? d.getValue().purchase().getCreatedByUser().toUpperCase() : "-"));
         userCol.setPrefWidth(100);
 
         // Actions with Crisp SVG Icons
-        TableColumn<PurchaseEntity, Void> actionCol = new TableColumn<>("Actions");
+        TableColumn<PurchaseHistoryRow, Void> actionCol = new TableColumn<>("Actions");
         actionCol.setCellFactory(cf -> new ActionButtonsTableCell(
                 p -> {
                     if (onPurchaseSelected != null)
@@ -477,10 +484,10 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
         return table;
     }
 
-    private void handlePrintCheque(PurchaseEntity p) {
-        String vendorName = getVendorName(p.getVendorId());
+    private void handlePrintCheque(PurchaseHistoryRow row) {
+        PurchaseEntity p = row.purchase();
         com.lax.sme_manager.dto.ChequeData data = new com.lax.sme_manager.dto.ChequeData(
-                vendorName, p.getGrandTotal(), p.getChequeDate() != null ? p.getChequeDate() : LocalDate.now(), true,
+                row.vendorName(), p.getGrandTotal(), p.getChequeDate() != null ? p.getChequeDate() : LocalDate.now(), true,
                 p.getId(), null);
         // Pass refresh callback so table updates immediately after successful print
         new ChequePreviewDialog(data, () -> viewModel.loadPurchases(), currentUser != null ? currentUser.getId() : null)
@@ -488,12 +495,13 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
     }
 
     private void handleBatchPrint() {
-        List<PurchaseEntity> selected = viewModel.selectedPurchases;
+        List<PurchaseHistoryRow> selected = viewModel.selectedPurchases;
         if (selected.isEmpty())
             return;
 
-        List<PurchaseEntity> unpaid = selected.stream()
-                .filter(p -> !"PAID".equalsIgnoreCase(p.getStatus()) && !"CLEARED".equalsIgnoreCase(p.getStatus()))
+        List<PurchaseHistoryRow> unpaid = selected.stream()
+                .filter(r -> !"PAID".equalsIgnoreCase(r.purchase().getStatus())
+                        && !"CLEARED".equalsIgnoreCase(r.purchase().getStatus()))
                 .toList();
 
         if (unpaid.isEmpty()) {
@@ -517,6 +525,15 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
         });
     }
 
+    private void handleBulkClear() {
+        int count = viewModel.selectedPurchases.size();
+        if (count == 0)
+            return;
+        if (AlertUtils.showConfirmation("Mark Cleared", "Mark " + count + " selected payments as CLEARED?")) {
+            viewModel.markSelectedAsCleared();
+        }
+    }
+
     private void handleBulkDelete() {
         int count = viewModel.selectedPurchases.size();
         if (count == 0)
@@ -532,11 +549,6 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
         }
     }
 
-    private String getVendorName(int id) {
-        return vendorRepository.findAllVendors().stream().filter(v -> v.getId() == id).map(Vendor::getName).findFirst()
-                .orElse("Unknown");
-    }
-
     private void handleExport() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Export Purchase History");
@@ -545,13 +557,25 @@ public class PurchaseHistoryView extends VBox implements RefreshableView {
 
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
-            try {
-                exportService.exportToExcel(viewModel.purchaseList, file);
-                AlertUtils.showInfo("Information", "Export successful!");
-            } catch (Exception e) {
-                AlertUtils.showError("Error", "Export failed: " + e.getMessage());
-                LOGGER.error("Export error", e);
-            }
+            // Every row matching the filters, not just the loaded page; streamed
+            // off the cursor on a background thread
+            java.util.function.Supplier<java.util.stream.Stream<PurchaseEntity>> source = viewModel
+                    .filteredPurchasesForExport(EXPORT_FETCH_SIZE);
+            java.util.concurrent.CompletableFuture.runAsync(() -> {
+                try (java.util.stream.Stream<PurchaseEntity> purchases = source.get()) {
+                    exportService.exportToExcel(purchases, file, null);
+                } catch (Exception e) {
+                    throw new java.util.concurrent.CompletionException(e);
+                }
+            }).whenComplete((ok, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    LOGGER.error("Export error", cause);
+                    AlertUtils.showError("Error", "Export failed: " + cause.getMessage());
+                } else {
+                    AlertUtils.showInfo("Information", "Export successful!");
+                }
+            }));
         }
     }
 
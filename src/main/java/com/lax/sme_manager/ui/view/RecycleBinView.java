@@ -47,10 +47,19 @@ public class RecycleBinView extends VBox {
         statusLabel.textProperty().bind(viewModel.statusMessage);
         statusLabel.setStyle("-fx-text-fill: #64748B; -fx-font-size: 13px;");
 
-        actions.getChildren().addAll(refreshBtn, statusLabel);
-
         // Table
         createTable();
+
+        // Multi-select restore: one set-based restore for the whole selection
+        Button restoreSelectedBtn = new Button("⤴ Restore Selected");
+        restoreSelectedBtn.setStyle(
+                "-fx-background-color: #0D9488; -fx-text-fill: white; -fx-font-weight: bold; -fx-background-radius: 8; -fx-cursor: hand;");
+        restoreSelectedBtn.disableProperty()
+                .bind(javafx.beans.binding.Bindings.isEmpty(tableView.getSelectionModel().getSelectedItems()));
+        restoreSelectedBtn.setOnAction(e -> viewModel
+                .restorePurchases(java.util.List.copyOf(tableView.getSelectionModel().getSelectedItems())));
+
+        actions.getChildren().addAll(refreshBtn, restoreSelectedBtn, statusLabel);
         VBox.setVgrow(tableView, Priority.ALWAYS);
 
         getChildren().addAll(header, actions, tableView);
@@ -61,6 +70,7 @@ public class RecycleBinView extends VBox {
         tableView = new TableView<>();
         tableView.setItems(viewModel.deletedPurchases);
         tableView.setPlaceholder(new Label("No deleted records found."));
+        tableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         tableView.setStyle(
                 "-fx-background-radius: 12; -fx-border-radius: 12; -fx-border-color: #E2E8F0; -fx-overflow-x: hidden;");
 
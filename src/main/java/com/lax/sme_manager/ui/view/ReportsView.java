@@ -17,10 +17,12 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class ReportsView extends VBox implements RefreshableView {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReportsView.class);
+    private static final int STREAM_FETCH_SIZE = 500;
     private final PurchaseRepository purchaseRepo = new PurchaseRepository();
     private final ReportService reportService;
 
@@ -136,30 +138,60 @@ public class ReportsView extends VBox implements RefreshableView {
         if (start == null || end == null)
             return;
 
-        Platform.runLater(() -> {
-            List<PurchaseEntity> purchases = purchaseRepo.findByDateRange(start, end);
+        // Stream the range on a background thread (read lane), update labels on the
+        // FX thread. Reports span archived periods too (lax_archive.db)
+        CompletableFuture.supplyAsync(() -> {
+            PeriodTotals totals = new PeriodTotals();
+            try (Stream<PurchaseEntity> purchases = purchaseRepo.streamByDateRangeAllPeriods(start, end,
+                    STREAM_FETCH_SIZE)) {
+                purchases.forEach(totals::add);
+            }
+            return totals;
+        }).whenComplete((totals, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                // e.g. the purchase stream could not be opened
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                LOGGER.error("Failed to load report summary", cause);
+                AlertUtils.showError("Report Failed", "Could not read purchases: " + cause.getMessage());
+                return;
+            }
+            totalBagsLbl.setText(String.valueOf(totals.bags));
+            totalAmountLbl.setText(String.format("₹%,.2f", totals.amount.doubleValue()));
+            totalCommLbl.setText(String.format("₹%,.2f", totals.commission.doubleValue()));
+            transactionCountLbl.setText(String.valueOf(totals.count));
+        }));
+    }
 
-            int totalBags = 0;
-            BigDecimal totalAmount = BigDecimal.ZERO;
-            BigDecimal totalComm = BigDecimal.ZERO;
+    private static final class PeriodTotals {
+        private int count = 0;
+        private int bags = 0;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal commission = BigDecimal.ZERO;
+
+        void add(PurchaseEntity p) {
+            count++;
+            bags += p.getBags();
+            amount = amount.add(p.getGrandTotal());
+            commission = commission.add(p.getCommissionFeeAmount());
+        }
+    }
 
-            for (PurchaseEntity p : purchases) {
-                totalBags += p.getBags();
-                totalAmount = totalAmount.add(p.getGrandTotal());
-                totalComm = totalComm.add(p.getCommissionFeeAmount());
+    /** Whether there is anything to export; warns and returns false otherwise */
+    private boolean hasDataInRange() {
+        try {
+            if (purchaseRepo.existsByDateRangeAllPeriods(startDatePicker.getValue(), endDatePicker.getValue())) {
+                return true;
             }
-
-            totalBagsLbl.setText(String.valueOf(totalBags));
-            totalAmountLbl.setText(String.format("₹%,.2f", totalAmount.doubleValue()));
-            totalCommLbl.setText(String.format("₹%,.2f", totalComm.doubleValue()));
-            transactionCountLbl.setText(String.valueOf(purchases.size()));
-        });
+            AlertUtils.showWarning("No Data", "There are no transactions for the selected date range.");
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not check purchases in range", e);
+            AlertUtils.showError("Report Failed", "Could not read purchases: " + e.getMessage());
+        }
+        return false;
     }
 
     private void handleExcelExport() {
-        List<PurchaseEntity> data = purchaseRepo.findByDateRange(startDatePicker.getValue(), endDatePicker.getValue());
-        if (data.isEmpty()) {
-            AlertUtils.showWarning("No Data", "There are no transactions for the selected date range.");
+        if (!hasDataInRange()) {
             return;
         }
 
@@ -172,7 +204,10 @@ public class ReportsView extends VBox implements RefreshableView {
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
             try {
-                reportService.exportToExcel(data, file);
+                try (Stream<PurchaseEntity> data = purchaseRepo.streamByDateRangeAllPeriods(startDatePicker.getValue(),
+                        endDatePicker.getValue(), STREAM_FETCH_SIZE)) {
+                    reportService.exportToExcel(data, file);
+                }
                 AlertUtils.showInfo("Export Success",
                         "Excel report generated successfully at:\n" + file.getAbsolutePath());
             } catch (Exception e) {
@@ -183,9 +218,7 @@ public class ReportsView extends VBox implements RefreshableView {
     }
 
     private void handlePDFExport() {
-        List<PurchaseEntity> data = purchaseRepo.findByDateRange(startDatePicker.getValue(), endDatePicker.getValue());
-        if (data.isEmpty()) {
-            AlertUtils.showWarning("No Data", "There are no transactions for the selected date range.");
+        if (!hasDataInRange()) {
             return;
         }
 
@@ -198,7 +231,10 @@ public class ReportsView extends VBox implements RefreshableView {
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
             try {
-                reportService.exportToPDF(data, file);
+                try (Stream<PurchaseEntity> data = purchaseRepo.streamByDateRangeAllPeriods(startDatePicker.getValue(),
+                        endDatePicker.getValue(), STREAM_FETCH_SIZE)) {
+                    reportService.exportToPDF(data, file);
+                }
                 AlertUtils.showInfo("Export Success",
                         "PDF summary generated successfully at:\n" + file.getAbsolutePath());
             } catch (Exception e) {
@@ -10,6 +10,8 @@ import com.lax.sme_manager.ui.theme.LaxTheme;
 import com.lax.sme_manager.domain.User;
 import com.lax.sme_manager.repository.UserRepository;
 import com.lax.sme_manager.util.ImageUtils;
+import com.lax.sme_manager.util.BackupCatalog;
+import com.lax.sme_manager.util.BackupScheduler;
 import com.lax.sme_manager.util.BackupService;
 import com.lax.sme_manager.util.PasswordManager;
 import javafx.geometry.Insets;
@@ -24,6 +26,8 @@ import java.util.List;
 
 public class SettingsView extends VBox {
 
+    // Rows per archive transaction: small enough that a save waits milliseconds
+    private static final int ARCHIVE_CHUNK_SIZE = 500;
     private final SignatureRepository sigRepo = new SignatureRepository();
     private final ChequeConfigRepository configRepo = new ChequeConfigRepository();
     private final VBox signatureList = new VBox(10);
@@ -81,8 +85,15 @@ public class SettingsView extends VBox {
         Button btnBackup = new Button("📦 Create Backup Now");
         btnBackup.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.SECONDARY));
         btnBackup.setOnAction(e -> {
-            new BackupService().performBackup();
-            AlertUtils.showInfo("Information", "Manual Backup Successful");
+            btnBackup.setDisable(true);
+            BackupScheduler.getInstance().backupNow().thenAccept(snapshot -> javafx.application.Platform.runLater(() -> {
+                btnBackup.setDisable(false);
+                if (snapshot != null) {
+                    AlertUtils.showInfo("Information", "Manual Backup Successful");
+                } else {
+                    AlertUtils.showError("Backup Failed", "The backup could not be created. Check logs.");
+                }
+            }));
         });
         generalGrid.add(btnBackup, 1, 2);
         generalSection.getChildren().add(generalGrid);
@@ -721,21 +732,7 @@ public class SettingsView extends VBox {
         archiveBox.getChildren().addAll(archiveTitle, archiveVal);
 
         // Update stats
-        File dbFile = com.lax.sme_manager.util.DatabaseManager.getDatabaseFile();
-        if (dbFile.exists()) {
-            double sizeMb = dbFile.length() / (1024.0 * 1024.0);
-            dbSizeVal.setText(String.format("%.2f MB", sizeMb));
-        }
-
-        try (java.sql.Connection conn = com.lax.sme_manager.util.DatabaseManager.getConnection();
-                java.sql.Statement stmt = conn.createStatement();
-                java.sql.ResultSet rs = stmt.executeQuery("SELECT count(*) FROM purchase_entries_archive")) {
-            if (rs.next()) {
-                archiveVal.setText(String.valueOf(rs.getInt(1)));
-            }
-        } catch (java.sql.SQLException e) {
-            archiveVal.setText("0");
-        }
+        updateMaintenanceStats(dbSizeVal, archiveVal);
 
         // --- BACKUP CLEANUP ---
         VBox backupBox = new VBox(10);
@@ -744,8 +741,12 @@ public class SettingsView extends VBox {
         Button btnCleanup = new Button("🧹 Clean Up Now");
         btnCleanup.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.SECONDARY));
         btnCleanup.setOnAction(e -> {
-            new BackupService().performBackup(); // performBackup calls cleanup
-            AlertUtils.showInfo("Maintenance", "Old backups (older than 30 days) have been removed.");
+            btnCleanup.setDisable(true);
+            // performBackup calls cleanup
+            BackupScheduler.getInstance().backupNow().thenAccept(snapshot -> javafx.application.Platform.runLater(() -> {
+                btnCleanup.setDisable(false);
+                AlertUtils.showInfo("Maintenance", "Old backups (older than 30 days) have been removed.");
+            }));
         });
         backupBox.getChildren().addAll(backupSub, btnCleanup);
 
@@ -761,6 +762,20 @@ public class SettingsView extends VBox {
         Button btnArchive = new Button("📦 Archive Old Data");
         btnArchive.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.PRIMARY));
 
+        // Progress (hidden until an archive runs); Cancel stops after the current chunk
+        VBox archiveProgressBox = new VBox(6);
+        archiveProgressBox.setManaged(false);
+        archiveProgressBox.setVisible(false);
+        ProgressBar archiveProgress = new ProgressBar(0);
+        archiveProgress.setMaxWidth(Double.MAX_VALUE);
+        archiveProgress.setPrefHeight(10);
+        archiveProgress.setStyle("-fx-accent: #0D9488;");
+        Label archiveStatus = new Label("Preparing archive...");
+        archiveStatus.setStyle("-fx-font-size: 12px; -fx-text-fill: #64748B;");
+        Button btnCancelArchive = new Button("Cancel");
+        btnCancelArchive.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.SECONDARY));
+        archiveProgressBox.getChildren().addAll(archiveStatus, archiveProgress, btnCancelArchive);
+
         btnArchive.setOnAction(e -> {
             java.time.LocalDate date = archiveBefore.getValue();
             if (date == null)
@@ -768,29 +783,49 @@ public class SettingsView extends VBox {
 
             if (AlertUtils.showConfirmation("Confirm Archiving",
                     "Are you sure you want to archive all data older than " + date + "?\n" +
-                            "Archived data will be moved to a separate table for performance.")) {
+                            "Archived data will be moved to a separate archive file (lax_archive.db) for performance.")) {
+
+                java.util.concurrent.atomic.AtomicBoolean cancelled = new java.util.concurrent.atomic.AtomicBoolean();
+                btnCancelArchive.setDisable(false);
+                btnCancelArchive.setOnAction(ev -> {
+                    cancelled.set(true);
+                    btnCancelArchive.setDisable(true);
+                    archiveStatus.setText("Cancelling after the current chunk...");
+                });
+                btnArchive.setDisable(true);
+                archiveProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+                archiveStatus.setText("Backing up before archiving...");
+                archiveProgressBox.setManaged(true);
+                archiveProgressBox.setVisible(true);
 
                 com.lax.sme_manager.repository.PurchaseRepository repo = new com.lax.sme_manager.repository.PurchaseRepository();
-                int moved = repo.archiveOldData(date);
-                if (moved >= 0) {
-                    AlertUtils.showInfo("Archiving Complete", moved + " records moved to archive.");
-                    // Refresh stats
-                    try (java.sql.Connection conn = com.lax.sme_manager.util.DatabaseManager.getConnection();
-                            java.sql.Statement stmt = conn.createStatement();
-                            java.sql.ResultSet rs = stmt
-                                    .executeQuery("SELECT count(*) FROM purchase_entries_archive")) {
-                        if (rs.next())
-                            archiveVal.setText(String.valueOf(rs.getInt(1)));
-                    } catch (Exception ignored) {
-                    }
-                } else {
-                    AlertUtils.showError("Archiving Failed", "An error occurred during archiving. Check logs.");
-                }
+                java.util.concurrent.CompletableFuture.supplyAsync(() -> repo.archiveOldData(date,
+                        ARCHIVE_CHUNK_SIZE,
+                        (archived, total) -> javafx.application.Platform.runLater(() -> {
+                            if (cancelled.get())
+                                return;
+                            archiveProgress.setProgress(total == 0 ? 1 : (double) archived / total);
+                            archiveStatus.setText("Archived " + archived + " of " + total + " records...");
+                        }),
+                        cancelled::get))
+                        .thenAccept(moved -> javafx.application.Platform.runLater(() -> {
+                            archiveProgressBox.setManaged(false);
+                            archiveProgressBox.setVisible(false);
+                            btnArchive.setDisable(false);
+                            if (moved >= 0) {
+                                AlertUtils.showInfo(cancelled.get() ? "Archiving Cancelled" : "Archiving Complete",
+                                        moved + " records moved to archive.");
+                            } else {
+                                AlertUtils.showError("Archiving Failed",
+                                        "An error occurred during archiving. Check logs.");
+                            }
+                            updateMaintenanceStats(dbSizeVal, archiveVal);
+                        }));
             }
         });
 
         archiveControls.getChildren().addAll(new Label("Archive data before:"), archiveBefore, btnArchive);
-        archivingBox.getChildren().addAll(archiveSub, archiveControls);
+        archivingBox.getChildren().addAll(archiveSub, archiveControls, archiveProgressBox);
 
         // --- BROWSE ARCHIVE ---
         VBox browseBox = new VBox(10);
@@ -813,11 +848,136 @@ public class SettingsView extends VBox {
         });
         browseBox.getChildren().addAll(browseSub, btnBrowse);
 
-        maintenanceSection.getChildren().addAll(desc, statsBox, new Separator(), backupBox, new Separator(),
+        maintenanceSection.getChildren().addAll(desc, statsBox, new Separator(), backupBox, createBackupHistoryBox(),
+                new Separator(),
                 archivingBox, new Separator(), browseBox);
         return maintenanceSection;
     }
 
+    /**
+     * Backup history from the catalog: verification status, size, row counts
+     * and checksum per snapshot, with one-click restore of a verified snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    private VBox createBackupHistoryBox() {
+        VBox historyBox = new VBox(10);
+        Label historySub = new Label("Backup History: Every backup is verified in the background.");
+        historySub.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
+
+        BackupService backupService = new BackupService();
+        TableView<BackupCatalog.Entry> table = new TableView<>();
+        table.setPrefHeight(220);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label("No backups yet."));
+        java.time.format.DateTimeFormatter taken = java.time.format.DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+        TableColumn<BackupCatalog.Entry, String> takenCol = new TableColumn<>("Taken");
+        takenCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                c.getValue().createdAt().format(taken)));
+
+        TableColumn<BackupCatalog.Entry, String> sizeCol = new TableColumn<>("Size");
+        sizeCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                String.format("%.2f MB", c.getValue().size() / (1024.0 * 1024.0))));
+
+        TableColumn<BackupCatalog.Entry, String> statusCol = new TableColumn<>("Verified");
+        statusCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                switch (c.getValue().status()) {
+                    case OK -> "✔ OK";
+                    case FAILED -> "✖ Failed";
+                    case PENDING -> "Pending";
+                }));
+
+        TableColumn<BackupCatalog.Entry, String> rowsCol = new TableColumn<>("Purchases / Archived / Vendors");
+        rowsCol.setCellValueFactory(c -> {
+            java.util.Map<String, Long> rows = c.getValue().rowCounts();
+            return new javafx.beans.property.SimpleStringProperty(rows.isEmpty() ? "-"
+                    : rows.getOrDefault("purchase_entries", 0L) + " / "
+                            + (rows.containsKey("purchase_entries_archive") ? rows.get("purchase_entries_archive")
+                                    : "-") + " / "
+                            + rows.getOrDefault("vendors", 0L));
+        });
+
+        TableColumn<BackupCatalog.Entry, String> checksumCol = new TableColumn<>("Checksum");
+        checksumCol.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                c.getValue().sha256().substring(0, 12)));
+
+        Runnable refresh = () -> java.util.concurrent.CompletableFuture.supplyAsync(() -> {
+            try {
+                return backupService.listCatalog();
+            } catch (java.io.IOException ex) {
+                throw new RuntimeException("Failed to list backups", ex);
+            }
+        }).whenComplete((entries, error) -> javafx.application.Platform.runLater(() -> {
+            if (error == null) {
+                table.getItems().setAll(entries);
+            }
+        }));
+
+        TableColumn<BackupCatalog.Entry, Void> actionCol = new TableColumn<>("Actions");
+        actionCol.setCellFactory(param -> new TableCell<>() {
+            private final Button btnRestore = new Button("♻️ Restore");
+            {
+                btnRestore.setStyle(
+                        "-fx-background-color: #10b981; -fx-text-fill: white; -fx-font-size: 11px; -fx-padding: 4 8;");
+                btnRestore.setOnAction(e -> restoreBackup(backupService, getTableView().getItems().get(getIndex())));
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setGraphic(null);
+                } else {
+                    // Only restore what verification has proven restorable
+                    BackupCatalog.Entry entry = getTableView().getItems().get(getIndex());
+                    btnRestore.setDisable(entry.status() != BackupCatalog.Status.OK);
+                    setGraphic(btnRestore);
+                }
+            }
+        });
+
+        table.getColumns().addAll(takenCol, sizeCol, statusCol, rowsCol, checksumCol, actionCol);
+
+        Button btnRefresh = new Button("🔄 Refresh");
+        btnRefresh.setStyle(LaxTheme.getButtonStyle(LaxTheme.ButtonType.SECONDARY));
+        btnRefresh.setOnAction(e -> refresh.run());
+        refresh.run();
+
+        historyBox.getChildren().addAll(historySub, table, btnRefresh);
+        return historyBox;
+    }
+
+    private void restoreBackup(BackupService backupService, BackupCatalog.Entry entry) {
+        if (!AlertUtils.showConfirmation("Restore Backup",
+                "Replace all current data with the backup from "
+                        + entry.createdAt().format(java.time.format.DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm"))
+                        + "?\nA backup of the current data is taken first. The application will close;\n"
+                        + "start it again to use the restored data.")) {
+            return;
+        }
+        // Back up the current state first, then stage the restore for the next start.
+        // No restore without that backup: the dialog promised one
+        BackupScheduler.getInstance().backupNow()
+                .thenCompose(current -> current != null
+                        ? backupService.prepareRestoreAsync(entry.snapshotId())
+                        : java.util.concurrent.CompletableFuture.failedFuture(
+                                new IllegalStateException("Backup of the current data failed")))
+                .whenComplete((ok, error) -> javafx.application.Platform.runLater(() -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof java.util.concurrent.CompletionException
+                                && error.getCause() != null ? error.getCause() : error;
+                        AlertUtils.showError("Restore Failed", cause instanceof IllegalStateException
+                                ? "The current data could not be backed up, so nothing was restored."
+                                : "The backup could not be restored. Your current data is unchanged.");
+                        return;
+                    }
+                    AlertUtils.showInfo("Restore Ready",
+                            "The backup will be applied when the application starts again. Closing now.");
+                    com.lax.sme_manager.util.DatabaseManager.shutdown();
+                    System.exit(0);
+                }));
+    }
+
     private void updateMaintenanceStats(Label dbSize, Label archive) {
         File dbFile = com.lax.sme_manager.util.DatabaseManager.getDatabaseFile();
         if (dbFile.exists()) {
@@ -825,13 +985,12 @@ public class SettingsView extends VBox {
             dbSize.setText(String.format("%.2f MB", sizeMb));
         }
 
-        try (java.sql.Connection conn = com.lax.sme_manager.util.DatabaseManager.getConnection();
-                java.sql.Statement stmt = conn.createStatement();
-                java.sql.ResultSet rs = stmt.executeQuery("SELECT count(*) FROM purchase_entries_archive")) {
-            if (rs.next()) {
-                archive.setText(String.valueOf(rs.getInt(1)));
-            }
-        } catch (java.sql.SQLException e) {
+        // Archived rows live in lax_archive.db; don't create it just to count nothing
+        File archiveFile = com.lax.sme_manager.util.ArchiveDatabase.getArchiveFile().toFile();
+        if (archiveFile.exists()) {
+            int archived = new com.lax.sme_manager.repository.PurchaseRepository().countArchived();
+            archive.setText(String.format("%d (%.2f MB)", archived, archiveFile.length() / (1024.0 * 1024.0)));
+        } else {
             archive.setText("0");
         }
     }
@@ -0,0 +1,131 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Archived purchases live in lax_archive.db next to the main database, so the
+ * hot file (page cache, backups, vacuum) only holds live data.
+ * - ATTACHed as "archive" only for the work that needs it ({@link #withArchive}),
+ * then DETACHed before the connection goes back to its pool
+ * - Queries spanning both files take archived rows only when the id is not
+ * also in main, so a row present in both (a move interrupted between its two
+ * commits) is taken from main
+ * - Moves between the files are two commits, copy first and delete second, so
+ * a crash can leave a duplicate but never lose a row
+ */
+public final class ArchiveDatabase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchiveDatabase.class);
+
+    public static final String SCHEMA = "archive";
+    public static final String FILE_NAME = "lax_archive.db";
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS archive.purchase_entries_archive (
+                id INTEGER PRIMARY KEY,
+                entry_date DATE NOT NULL,
+                vendor_id INTEGER NOT NULL,
+                bags INTEGER DEFAULT 0,
+                rate REAL DEFAULT 0.0,
+                weight_kg REAL,
+                is_lumpsum BOOLEAN DEFAULT 0,
+                market_fee_percent REAL,
+                commission_percent REAL,
+                market_fee_amount REAL,
+                commission_amount REAL,
+                base_amount REAL,
+                grand_total REAL,
+                notes TEXT,
+                payment_mode TEXT,
+                advance_paid BOOLEAN DEFAULT 0,
+                status TEXT DEFAULT 'UNPAID',
+                cheque_number TEXT,
+                cheque_date DATE,
+                created_by_user TEXT,
+                is_deleted BOOLEAN DEFAULT 0,
+                created_at TIMESTAMP,
+                updated_at TIMESTAMP,
+                base_amount_paise INTEGER NOT NULL DEFAULT 0,
+                market_fee_amount_paise INTEGER NOT NULL DEFAULT 0,
+                commission_amount_paise INTEGER NOT NULL DEFAULT 0,
+                grand_total_paise INTEGER NOT NULL DEFAULT 0,
+                archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """;
+
+    private ArchiveDatabase() {
+    }
+
+    /**
+     * Run work with the archive attached to a connection from the main pool
+     * (autocommit, outside the writer lane: ATTACH is not allowed inside a
+     * transaction).
+     */
+    public static <T> T withArchive(WriteExecutor.SqlWork<T> work) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            attach(conn);
+            try {
+                return work.execute(conn);
+            } finally {
+                detachQuietly(conn);
+            }
+        }
+    }
+
+    /**
+     * Attach lax_archive.db (created on first use). Works on query_only
+     * connections once the file exists: the schema statements are then no-ops,
+     * which query_only allows.
+     */
+    public static void attach(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("ATTACH DATABASE ? AS " + SCHEMA)) {
+            pstmt.setString(1, archiveFileFor(conn));
+            pstmt.execute();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            // WAL like the main file, so browsing the archive never blocks a move
+            stmt.execute("PRAGMA archive.journal_mode=WAL");
+            stmt.execute(CREATE_TABLE_SQL);
+            stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_deleted_date "
+                    + "ON purchase_entries_archive (is_deleted, entry_date)");
+        } catch (SQLException e) {
+            detachQuietly(conn);
+            throw e;
+        }
+    }
+
+    public static void detachQuietly(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DETACH DATABASE " + SCHEMA);
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to detach archive database", e);
+        }
+    }
+
+    /** lax_archive.db next to the connection's main file; in-memory for in-memory databases (tests) */
+    static String archiveFileFor(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                if ("main".equals(rs.getString("name"))) {
+                    String file = rs.getString("file");
+                    return file == null || file.isEmpty() ? ":memory:"
+                            : Paths.get(file).resolveSibling(FILE_NAME).toString();
+                }
+            }
+        }
+        return ":memory:";
+    }
+
+    public static Path getArchiveFile() {
+        return DatabaseManager.getAppDataDir().resolve(FILE_NAME);
+    }
+}
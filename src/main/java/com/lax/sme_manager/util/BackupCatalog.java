@@ -0,0 +1,138 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Verification results for the snapshots of one {@link BackupStore}, one
+ * properties file per snapshot under store/catalog. Kept next to the backups
+ * (not in the database) so it survives losing the database.
+ */
+public class BackupCatalog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackupCatalog.class);
+    private static final String SUFFIX = ".properties";
+    private static final String ROWS_PREFIX = "rows.";
+
+    public enum Status {
+        PENDING, OK, FAILED
+    }
+
+    /**
+     * @param rowCounts table -> rows in the snapshot, in display order
+     * @param message   integrity_check output or error when FAILED
+     */
+    public record Entry(String snapshotId, LocalDateTime createdAt, long size, String sha256, Status status,
+            LocalDateTime verifiedAt, Map<String, Long> rowCounts, String message) {
+
+        static Entry pending(BackupStore.Snapshot snapshot) {
+            return new Entry(snapshot.id(), snapshot.createdAt(), snapshot.size(), snapshot.sha256(),
+                    Status.PENDING, null, Map.of(), null);
+        }
+    }
+
+    private final Path dir;
+
+    public BackupCatalog(BackupStore store) {
+        this.dir = store.getRoot().resolve("catalog");
+    }
+
+    /**
+     * Catalog entries for the given snapshots, in the same order; snapshots not
+     * verified yet come back PENDING.
+     */
+    public List<Entry> entries(List<BackupStore.Snapshot> snapshots) {
+        List<Entry> entries = new ArrayList<>(snapshots.size());
+        for (BackupStore.Snapshot snapshot : snapshots) {
+            Entry entry = read(snapshot.id());
+            entries.add(entry != null ? entry : Entry.pending(snapshot));
+        }
+        return entries;
+    }
+
+    public Entry get(String snapshotId) {
+        return read(snapshotId);
+    }
+
+    public void put(Entry entry) throws IOException {
+        Files.createDirectories(dir);
+        Properties props = new Properties();
+        props.setProperty("created", entry.createdAt().toString());
+        props.setProperty("size", String.valueOf(entry.size()));
+        props.setProperty("sha256", entry.sha256());
+        props.setProperty("status", entry.status().name());
+        if (entry.verifiedAt() != null) {
+            props.setProperty("verified", entry.verifiedAt().toString());
+        }
+        if (entry.message() != null) {
+            props.setProperty("message", entry.message());
+        }
+        props.setProperty("tables", String.join(",", entry.rowCounts().keySet()));
+        entry.rowCounts().forEach((table, rows) -> props.setProperty(ROWS_PREFIX + table, String.valueOf(rows)));
+
+        Path tmp = dir.resolve(entry.snapshotId() + SUFFIX + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(w, "Backup verification");
+        }
+        Files.move(tmp, dir.resolve(entry.snapshotId() + SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Drop entries for snapshots that no longer exist (after prune) */
+    public void retain(Set<String> snapshotIds) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)
+                        && !snapshotIds.contains(name.substring(0, name.length() - SUFFIX.length()))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to clean up backup catalog", e);
+        }
+    }
+
+    private Entry read(String snapshotId) {
+        Path file = dir.resolve(snapshotId + SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(r);
+            Map<String, Long> rows = new LinkedHashMap<>();
+            String tables = props.getProperty("tables", "");
+            if (!tables.isEmpty()) {
+                for (String table : tables.split(",")) {
+                    rows.put(table, Long.parseLong(props.getProperty(ROWS_PREFIX + table, "0")));
+                }
+            }
+            String verified = props.getProperty("verified");
+            return new Entry(snapshotId, LocalDateTime.parse(props.getProperty("created")),
+                    Long.parseLong(props.getProperty("size")), props.getProperty("sha256"),
+                    Status.valueOf(props.getProperty("status")),
+                    verified != null ? LocalDateTime.parse(verified) : null, rows, props.getProperty("message"));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unreadable backup catalog entry: {}", file.getFileName(), e);
+            return null;
+        }
+    }
+}
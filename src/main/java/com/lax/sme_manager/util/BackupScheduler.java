@@ -0,0 +1,178 @@
+package com.lax.sme_manager.util;
+
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs backups in the background so nothing waits for one.
+ * - Periodic: once BACKUP_INTERVAL has passed and data changed, at the next
+ * idle moment (no domain events for IDLE_DELAY); after FORCE_INTERVAL the
+ * backup runs even if the user never stops typing
+ * - Scheduled backups store chunks at THROTTLE_BYTES_PER_SECOND; backups
+ * someone is waiting for (backupNow, close) run at full speed. The database
+ * snapshot is never throttled (any commit restarts a slow copy)
+ * - Only one backup at a time: backupNow joins a running one
+ * - Close waits only for a running backup ({@link #awaitRunning}), never starts one
+ */
+public class BackupScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackupScheduler.class);
+    private static BackupScheduler instance;
+
+    private static final long TICK_SECONDS = 60;
+    private static final long IDLE_DELAY_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long BACKUP_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+    private static final long FORCE_INTERVAL_MS = TimeUnit.HOURS.toMillis(24);
+    private static final long THROTTLE_BYTES_PER_SECOND = 8L * 1024 * 1024;
+
+    private final BackupService backupService = new BackupService();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "backup-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile long lastActivityMillis = System.currentTimeMillis();
+    private volatile long lastBackupMillis;
+    // Unknown at startup whether the last session's changes were backed up
+    private volatile boolean dirty = true;
+    private volatile double progress = -1;
+    private volatile IoThrottle runningThrottle;
+    private CompletableFuture<BackupStore.Snapshot> running;
+    private boolean started;
+
+    private BackupScheduler() {
+    }
+
+    public static synchronized BackupScheduler getInstance() {
+        if (instance == null) {
+            instance = new BackupScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Start ticking. Activity is any committed domain event.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        EventBus.subscribe(DomainEvent.class, e -> {
+            lastActivityMillis = System.currentTimeMillis();
+            dirty = true;
+        });
+        ticker.execute(this::loadLastBackupTime);
+        ticker.execute(backupService::verifyPending);
+        ticker.scheduleWithFixedDelay(this::tick, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Back up now at full speed, or join the backup already running.
+     */
+    public synchronized CompletableFuture<BackupStore.Snapshot> backupNow() {
+        if (isRunning()) {
+            runningThrottle.setBytesPerSecond(0);
+            return running;
+        }
+        return startBackup(IoThrottle.unlimited());
+    }
+
+    public synchronized boolean isRunning() {
+        return running != null && !running.isDone();
+    }
+
+    /** Fraction of the running backup's snapshot copied, or -1 if not known yet */
+    public double getProgress() {
+        return progress;
+    }
+
+    /**
+     * Stop scheduling, lift the throttle on a running backup and wait for it.
+     *
+     * @return true if no backup is running any more
+     */
+    public boolean awaitRunning(long timeoutMs) {
+        ticker.shutdownNow();
+        CompletableFuture<BackupStore.Snapshot> current;
+        synchronized (this) {
+            if (!isRunning()) {
+                return true;
+            }
+            runningThrottle.setBytesPerSecond(0);
+            current = running;
+        }
+        try {
+            current.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            LOGGER.warn("Backup still running after {} ms; exiting without it", timeoutMs);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return true; // failed, but no longer running
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            if (!dirty || isRunning()) {
+                return;
+            }
+            long sinceBackup = now - lastBackupMillis;
+            boolean idle = now - lastActivityMillis >= IDLE_DELAY_MS;
+            if ((sinceBackup >= BACKUP_INTERVAL_MS && idle) || sinceBackup >= FORCE_INTERVAL_MS) {
+                synchronized (this) {
+                    if (!isRunning()) {
+                        LOGGER.info("Starting scheduled background backup");
+                        startBackup(new IoThrottle(THROTTLE_BYTES_PER_SECOND));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            LOGGER.error("Backup scheduling failed", e);
+        }
+    }
+
+    private CompletableFuture<BackupStore.Snapshot> startBackup(IoThrottle throttle) {
+        dirty = false; // changes from here on need the next backup
+        progress = -1;
+        runningThrottle = throttle;
+        running = backupService.performBackupAsync(
+                (copied, total) -> progress = total == 0 ? -1 : (double) copied / total, throttle)
+                .whenComplete((snapshot, error) -> {
+                    if (snapshot != null) {
+                        lastBackupMillis = System.currentTimeMillis();
+                    } else {
+                        dirty = true; // retry on a later tick
+                    }
+                });
+        return running;
+    }
+
+    private void loadLastBackupTime() {
+        try {
+            List<BackupStore.Snapshot> snapshots = backupService.listSnapshots();
+            if (!snapshots.isEmpty()) {
+                lastBackupMillis = snapshots.get(0).createdAt().atZone(ZoneId.systemDefault()).toInstant()
+                        .toEpochMilli();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not read backup history; next backup runs when due", e);
+        }
+    }
+}
@@ -2,58 +2,350 @@ package com.lax.sme_manager.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConnection;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Handles database backups on exit and manual triggers.
+ * - Snapshots come from SQLite's online backup API in a single step: one read
+ * transaction, so the copy is consistent and bounded however busy the writer
+ * is (WAL lets it keep committing meanwhile)
+ * - Each snapshot goes into a deduplicating {@link BackupStore} (Backups/store,
+ * and store/ under the custom backup folder); only changed chunks are written
+ * - The temporary snapshot file is deleted once stored
+ * - lax_archive.db has its own stores (archive-store/), snapshotted only when
+ * it changed since its last snapshot, so archived years aren't re-read on
+ * every backup
  */
 public class BackupService {
     private static final Logger LOGGER = LoggerFactory.getLogger(BackupService.class);
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmm");
 
-    public void performBackup() {
+    // All pages in one backup step. Smaller steps release the read lock between
+    // steps, and any commit from another connection then restarts the copy from
+    // page 1, so under steady writes the backup might never finish
+    private static final int ALL_PAGES = -1;
+    // Busy retries per step before the backup gives up (sleep between retries)
+    private static final int BUSY_SLEEP_MS = 50;
+    private static final int BUSY_RETRIES = 20;
+
+    // One backup at a time, off the FX thread
+    private static final ExecutorService BACKUP_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "backup");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private static final Object BACKUP_LOCK = new Object();
+    private static final BackupVerifier VERIFIER = new BackupVerifier();
+    private static final String STORE_DIR = "store";
+    private static final String ARCHIVE_STORE_DIR = "archive-store";
+    private static final String ARCHIVE_TABLE = "purchase_entries_archive";
+    private static final int RETENTION_DAYS = 30;
+
+    @FunctionalInterface
+    public interface BackupProgress {
+        void onProgress(int pagesCopied, int pageCount);
+    }
+
+    /**
+     * Back up on the background backup thread.
+     *
+     * @return the local snapshot, or null if no backup was written
+     */
+    public CompletableFuture<BackupStore.Snapshot> performBackupAsync(BackupProgress progress) {
+        return performBackupAsync(progress, IoThrottle.unlimited());
+    }
+
+    /**
+     * Back up on the background backup thread, storing the snapshot no faster
+     * than throttle allows (scheduled backups). The snapshot itself is never
+     * throttled.
+     */
+    public CompletableFuture<BackupStore.Snapshot> performBackupAsync(BackupProgress progress, IoThrottle throttle) {
+        return CompletableFuture.supplyAsync(() -> performBackup(progress, throttle), BACKUP_EXECUTOR);
+    }
+
+    public CompletableFuture<BackupStore.Snapshot> performBackupAsync() {
+        return performBackupAsync((copied, total) -> {
+        });
+    }
+
+    /**
+     * Back up on the calling thread. Use from background work only.
+     *
+     * @return the local snapshot, or null if no backup was written
+     */
+    public BackupStore.Snapshot performBackup() {
+        return performBackup((copied, total) -> {
+        });
+    }
+
+    public BackupStore.Snapshot performBackup(BackupProgress progress) {
+        return performBackup(progress, IoThrottle.unlimited());
+    }
+
+    public BackupStore.Snapshot performBackup(BackupProgress progress, IoThrottle throttle) {
         File dbFile = DatabaseManager.getDatabaseFile();
         if (!dbFile.exists())
+            return null;
+
+        synchronized (BACKUP_LOCK) {
+            Path localDir = DatabaseManager.getAppDataDir().resolve("Backups");
+            Path partFile = localDir.resolve("data_backup.db.part");
+            try {
+                Files.createDirectories(localDir);
+                Files.deleteIfExists(partFile);
+                LocalDateTime now = LocalDateTime.now();
+                snapshotTo(DatabaseManager.getUrl(), partFile, progress);
+
+                // 1. Local Backup, verified in the background once stored
+                BackupStore store = localStore();
+                BackupStore.Snapshot snapshot = ingest(store, partFile, now, throttle);
+                if (snapshot != null) {
+                    VERIFIER.verifyAsync(store, snapshot);
+                }
+
+                // 2. Cloud/User defined Backup
+                String customPath = ConfigManager.getInstance().getProperty(ConfigManager.KEY_BACKUP_PATH, null);
+                if (customPath != null && !customPath.trim().isEmpty()) {
+                    ingest(new BackupStore(Paths.get(customPath).resolve(STORE_DIR)), partFile, now, throttle);
+                    cleanupOldBackups(Paths.get(customPath));
+                }
+
+                // 3. Archive database, when it changed
+                backupArchive(localDir, customPath, now, throttle);
+
+                // Full-file backups from before the store existed age out as before
+                cleanupOldBackups(localDir);
+                return snapshot;
+            } catch (IOException | SQLException e) {
+                LOGGER.error("Backup failed for path: {}", localDir, e);
+                return null;
+            } finally {
+                deleteQuietly(partFile);
+            }
+        }
+    }
+
+    private void backupArchive(Path localDir, String customPath, LocalDateTime now, IoThrottle throttle) {
+        Path archiveFile = ArchiveDatabase.getArchiveFile();
+        if (!Files.exists(archiveFile)) {
             return;
+        }
+        BackupStore store = localArchiveStore();
+        Path partFile = localDir.resolve("archive_backup.db.part");
+        try {
+            if (!changedSinceLastSnapshot(archiveFile, store)) {
+                LOGGER.info("Archive database unchanged since its last backup");
+                return;
+            }
+            Files.deleteIfExists(partFile);
+            snapshotTo("jdbc:sqlite:" + archiveFile, partFile, (copied, total) -> {
+            });
+            BackupStore.Snapshot snapshot = ingest(store, partFile, now, throttle);
+            if (snapshot != null) {
+                VERIFIER.verifyAsync(store, snapshot);
+            }
+            if (customPath != null && !customPath.trim().isEmpty()) {
+                ingest(new BackupStore(Paths.get(customPath).resolve(ARCHIVE_STORE_DIR)), partFile, now, throttle);
+            }
+        } catch (IOException | SQLException e) {
+            LOGGER.error("Archive backup failed for {}", archiveFile, e);
+        } finally {
+            deleteQuietly(partFile);
+        }
+    }
+
+    /** Whether the file or its WAL was written after the store's newest snapshot was taken */
+    private static boolean changedSinceLastSnapshot(Path dbFile, BackupStore store) throws IOException {
+        List<BackupStore.Snapshot> snapshots = store.listSnapshots();
+        if (snapshots.isEmpty()) {
+            return true;
+        }
+        java.time.Instant taken = snapshots.get(0).createdAt().atZone(java.time.ZoneId.systemDefault()).toInstant();
+        for (Path file : List.of(dbFile, dbFile.resolveSibling(dbFile.getFileName() + "-wal"))) {
+            if (Files.exists(file) && !Files.getLastModifiedTime(file).toInstant().isBefore(taken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Snapshots in the local store, newest first */
+    public List<BackupStore.Snapshot> listSnapshots() throws IOException {
+        return localStore().listSnapshots();
+    }
+
+    /** Rebuild a local snapshot as a standalone database file at target */
+    public void restoreSnapshot(String snapshotId, Path target) throws IOException {
+        localStore().restore(snapshotId, target);
+    }
 
-        // 1. Local Backup
-        backupToPath(DatabaseManager.getAppDataDir().resolve("Backups"));
+    /**
+     * Local snapshots with their verification results, newest first. Archived
+     * rows live in lax_archive.db, so their count comes from the archive
+     * snapshot current when each backup was taken.
+     */
+    public List<BackupCatalog.Entry> listCatalog() throws IOException {
+        BackupStore store = localStore();
+        List<BackupCatalog.Entry> entries = new BackupCatalog(store).entries(store.listSnapshots());
 
-        // 2. Cloud/User defined Backup
-        String customPath = ConfigManager.getInstance().getProperty(ConfigManager.KEY_BACKUP_PATH, null);
-        if (customPath != null && !customPath.trim().isEmpty()) {
-            backupToPath(Paths.get(customPath));
+        BackupStore archiveStore = localArchiveStore();
+        List<BackupCatalog.Entry> archived = new BackupCatalog(archiveStore).entries(archiveStore.listSnapshots());
+        List<BackupCatalog.Entry> result = new java.util.ArrayList<>(entries.size());
+        for (BackupCatalog.Entry entry : entries) {
+            // Newest archive snapshot taken no later than this backup
+            Long count = archived.stream()
+                    .filter(a -> !a.createdAt().isAfter(entry.createdAt()))
+                    .findFirst()
+                    .map(a -> a.rowCounts().get(ARCHIVE_TABLE))
+                    .orElse(null);
+            if (count == null || entry.rowCounts().isEmpty()) {
+                result.add(entry);
+                continue;
+            }
+            java.util.Map<String, Long> rows = new java.util.LinkedHashMap<>(entry.rowCounts());
+            rows.put(ARCHIVE_TABLE, count);
+            result.add(new BackupCatalog.Entry(entry.snapshotId(), entry.createdAt(), entry.size(), entry.sha256(),
+                    entry.status(), entry.verifiedAt(), rows, entry.message()));
         }
+        return result;
     }
 
-    private void backupToPath(Path targetDir) {
+    /** Re-run verification of one local snapshot (low priority) */
+    public CompletableFuture<BackupCatalog.Entry> verifyAsync(String snapshotId) {
+        BackupStore store = localStore();
         try {
-            Files.createDirectories(targetDir);
-            String timestamp = LocalDateTime.now().format(FORMATTER);
-            Path targetFile = targetDir.resolve("data_backup_" + timestamp + ".db");
+            return VERIFIER.verifyAsync(store, store.getSnapshot(snapshotId));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Queue verification for local snapshots that were never verified (e.g. app closed first) */
+    public void verifyPending() {
+        try {
+            BackupStore store = localStore();
+            BackupCatalog catalog = new BackupCatalog(store);
+            for (BackupStore.Snapshot snapshot : store.listSnapshots()) {
+                if (catalog.get(snapshot.id()) == null) {
+                    VERIFIER.verifyAsync(store, snapshot);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not list backups to verify", e);
+        }
+    }
 
-            Files.copy(DatabaseManager.getDatabaseFile().toPath(), targetFile, StandardCopyOption.REPLACE_EXISTING);
-            LOGGER.info("Backup created at: {}", targetFile);
+    /**
+     * Stage a local snapshot to replace the live database at the next start
+     * (DatabaseManager swaps it in before opening any connection). The staged
+     * file is rebuilt, hash-checked and integrity-checked first.
+     */
+    public CompletableFuture<Void> prepareRestoreAsync(String snapshotId) {
+        return CompletableFuture.runAsync(() -> {
+            Path pending = DatabaseManager.getPendingRestoreFile();
+            BackupStore store = localStore();
+            try {
+                BackupStore.Snapshot snapshot = store.getSnapshot(snapshotId);
+                store.restore(snapshotId, pending);
+                BackupCatalog.Entry check = VERIFIER.check(snapshot, pending);
+                if (check.status() != BackupCatalog.Status.OK) {
+                    throw new IOException("Backup " + snapshotId + " failed integrity check: " + check.message());
+                }
+                LOGGER.info("Backup {} staged for restore at next start", snapshotId);
+            } catch (IOException | SQLException e) {
+                deleteQuietly(pending);
+                throw new RuntimeException("Failed to prepare restore of " + snapshotId, e);
+            } finally {
+                deleteQuietly(pending.resolveSibling(pending.getFileName() + "-wal"));
+                deleteQuietly(pending.resolveSibling(pending.getFileName() + "-shm"));
+            }
+        }, BACKUP_EXECUTOR);
+    }
 
-            // Cleanup old backups (keep last 30)
-            cleanupOldBackups(targetDir);
+    private static BackupStore localStore() {
+        return new BackupStore(DatabaseManager.getAppDataDir().resolve("Backups").resolve(STORE_DIR));
+    }
 
+    private static BackupStore localArchiveStore() {
+        return new BackupStore(DatabaseManager.getAppDataDir().resolve("Backups").resolve(ARCHIVE_STORE_DIR));
+    }
+
+    private BackupStore.Snapshot ingest(BackupStore store, Path snapshotFile, LocalDateTime createdAt,
+            IoThrottle throttle) {
+        try {
+            BackupStore.IngestResult result = store.ingest(snapshotFile, createdAt, throttle);
+            LOGGER.info("Backup stored at {} ({} new chunks, {} KB written)", store.getRoot(),
+                    result.newChunks(), result.bytesWritten() / 1024);
+            // Keep 30 days of snapshots
+            int dropped = store.prune(LocalDateTime.now().minusDays(RETENTION_DAYS));
+            if (dropped > 0) {
+                LOGGER.info("Pruned {} unreferenced backup chunks", dropped);
+            }
+            new BackupCatalog(store).retain(store.listSnapshots().stream()
+                    .map(BackupStore.Snapshot::id)
+                    .collect(java.util.stream.Collectors.toSet()));
+            return result.snapshot();
         } catch (IOException e) {
-            LOGGER.error("Backup failed for path: {}", targetDir, e);
+            LOGGER.error("Backup failed for path: {}", store.getRoot(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Consistent copy of the database at url through a dedicated connection (not
+     * a pooled one, which a long backup would hold from the app). Falls back to
+     * VACUUM INTO when the online backup reports an error.
+     */
+    private void snapshotTo(String url, Path target, BackupProgress progress)
+            throws SQLException, IOException {
+        try (Connection conn = DriverManager.getConnection(url)) {
+            // Never throttled: the single step holds a read transaction, which
+            // keeps the WAL from being checkpointed until it ends
+            int rc = conn.unwrap(SQLiteConnection.class).getDatabase().backup("main", target.toString(),
+                    (remaining, pageCount) -> progress.onProgress(pageCount - remaining, pageCount),
+                    BUSY_SLEEP_MS, BUSY_RETRIES, ALL_PAGES);
+            if (rc == 0) { // SQLITE_OK
+                return;
+            }
+            LOGGER.warn("Online backup returned code {}; retrying with VACUUM INTO", rc);
+            Files.deleteIfExists(target);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("VACUUM INTO '" + target.toString().replace("'", "''") + "'");
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null)
+            return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
         }
     }
 
     private void cleanupOldBackups(Path targetDir) {
         try {
-            LocalDateTime threshold = LocalDateTime.now().minusDays(30);
+            LocalDateTime threshold = LocalDateTime.now().minusDays(RETENTION_DAYS);
             Files.list(targetDir)
                     .filter(p -> p.getFileName().toString().startsWith("data_backup_"))
                     .forEach(p -> {
@@ -0,0 +1,327 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-addressed, deduplicated backup store.
+ * - A snapshot file is split into fixed-size chunks; each chunk is stored once,
+ * deflated, under its SHA-256 (chunks/ab/abcd...)
+ * - A text manifest per snapshot lists its chunk hashes in order plus the
+ * size and hash of the whole file, so restore can verify what it rebuilt
+ * - Unchanged chunks are never written again: a daily backup costs only the
+ * chunks that changed since any earlier snapshot
+ * - prune() drops old manifests, then every chunk no manifest references
+ *
+ * Not thread-safe: BackupService serialises all backups.
+ */
+public class BackupStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackupStore.class);
+    private static final DateTimeFormatter ID_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss");
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String MANIFEST_HEADER = "# lax backup manifest v1";
+
+    // 64 KB = 16 SQLite pages: small enough that a day's edits touch few chunks,
+    // large enough that a 2 GB manifest stays around 32k lines
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path chunksDir;
+    private final Path manifestsDir;
+    private final int chunkSize;
+
+    public record Snapshot(String id, LocalDateTime createdAt, long size, String sha256, int chunkSize,
+            List<String> chunks) {
+    }
+
+    /** What one ingest cost: chunks and (compressed) bytes actually written */
+    public record IngestResult(Snapshot snapshot, int newChunks, long bytesWritten) {
+    }
+
+    public BackupStore(Path root) {
+        this(root, DEFAULT_CHUNK_SIZE);
+    }
+
+    BackupStore(Path root, int chunkSize) {
+        this.root = root;
+        this.chunksDir = root.resolve("chunks");
+        this.manifestsDir = root.resolve("manifests");
+        this.chunkSize = chunkSize;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Add a consistent database file as a new snapshot.
+     */
+    public IngestResult ingest(Path source, LocalDateTime createdAt) throws IOException {
+        return ingest(source, createdAt, IoThrottle.unlimited());
+    }
+
+    /**
+     * Add a consistent database file as a new snapshot, reading it no faster
+     * than throttle allows.
+     */
+    public IngestResult ingest(Path source, LocalDateTime createdAt, IoThrottle throttle) throws IOException {
+        Files.createDirectories(chunksDir);
+        Files.createDirectories(manifestsDir);
+
+        MessageDigest whole = sha256();
+        MessageDigest chunkDigest = sha256();
+        List<String> chunks = new ArrayList<>();
+        int newChunks = 0;
+        long bytesWritten = 0;
+        long size = 0;
+        byte[] buffer = new byte[chunkSize];
+
+        try (InputStream in = Files.newInputStream(source)) {
+            int n;
+            while ((n = in.readNBytes(buffer, 0, chunkSize)) > 0) {
+                throttle.acquire(n);
+                whole.update(buffer, 0, n);
+                chunkDigest.update(buffer, 0, n);
+                String hash = HexFormat.of().formatHex(chunkDigest.digest());
+                chunks.add(hash);
+                size += n;
+
+                Path chunkFile = chunkPath(hash);
+                if (!Files.exists(chunkFile)) {
+                    bytesWritten += writeChunk(chunkFile, buffer, n);
+                    newChunks++;
+                }
+            }
+        }
+
+        String id = newSnapshotId(createdAt);
+        Snapshot snapshot = new Snapshot(id, createdAt, size, HexFormat.of().formatHex(whole.digest()),
+                chunkSize, chunks);
+        writeManifest(snapshot);
+        LOGGER.info("Backup snapshot {}: {} chunks, {} new ({} bytes written)", id, chunks.size(), newChunks,
+                bytesWritten);
+        return new IngestResult(snapshot, newChunks, bytesWritten);
+    }
+
+    /** Snapshots in the store, newest first */
+    public List<Snapshot> listSnapshots() throws IOException {
+        if (!Files.isDirectory(manifestsDir)) {
+            return List.of();
+        }
+        List<Snapshot> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(manifestsDir)) {
+            for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(MANIFEST_SUFFIX))::iterator) {
+                try {
+                    snapshots.add(readManifest(file));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Skipping unreadable backup manifest: {}", file.getFileName(), e);
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparing(Snapshot::createdAt).reversed());
+        return snapshots;
+    }
+
+    public Snapshot getSnapshot(String id) throws IOException {
+        return readManifest(manifestsDir.resolve(id + MANIFEST_SUFFIX));
+    }
+
+    /**
+     * Rebuild a snapshot into target. Written to target.part and renamed only
+     * after the size and whole-file hash match the manifest.
+     */
+    public void restore(String id, Path target) throws IOException {
+        restore(id, target, IoThrottle.unlimited());
+    }
+
+    public void restore(String id, Path target, IoThrottle throttle) throws IOException {
+        Snapshot snapshot = getSnapshot(id);
+        Path partFile = target.resolveSibling(target.getFileName() + ".part");
+        MessageDigest whole = sha256();
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(partFile)) {
+            byte[] buffer = new byte[snapshot.chunkSize()];
+            for (String hash : snapshot.chunks()) {
+                try (InputStream in = new InflaterInputStream(Files.newInputStream(chunkPath(hash)))) {
+                    int n = in.readNBytes(buffer, 0, buffer.length);
+                    throttle.acquire(n);
+                    whole.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                    size += n;
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partFile);
+            throw e;
+        }
+
+        String sha = HexFormat.of().formatHex(whole.digest());
+        if (size != snapshot.size() || !sha.equals(snapshot.sha256())) {
+            Files.deleteIfExists(partFile);
+            throw new IOException("Backup " + id + " is corrupt: rebuilt " + size + " bytes, sha256 " + sha);
+        }
+        try {
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        LOGGER.info("Backup {} restored to {}", id, target);
+    }
+
+    /**
+     * Delete snapshots older than threshold (always keeping the newest), then
+     * every chunk no remaining snapshot uses.
+     *
+     * @return chunks deleted
+     */
+    public int prune(LocalDateTime threshold) throws IOException {
+        List<Snapshot> snapshots = listSnapshots();
+        Set<String> live = new HashSet<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            Snapshot snapshot = snapshots.get(i);
+            if (i > 0 && snapshot.createdAt().isBefore(threshold)) {
+                Files.deleteIfExists(manifestsDir.resolve(snapshot.id() + MANIFEST_SUFFIX));
+                LOGGER.info("Deleted old backup snapshot: {}", snapshot.id());
+            } else {
+                live.addAll(snapshot.chunks());
+            }
+        }
+
+        if (!Files.isDirectory(chunksDir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(chunksDir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Path chunkPath(String hash) {
+        return chunksDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private long writeChunk(Path chunkFile, byte[] data, int length) throws IOException {
+        Files.createDirectories(chunkFile.getParent());
+        Path tmp = chunkFile.resolveSibling(chunkFile.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(tmp), deflater)) {
+            out.write(data, 0, length);
+        } finally {
+            deflater.end();
+        }
+        long written = Files.size(tmp);
+        // Rename last: a chunk file that exists is always complete
+        Files.move(tmp, chunkFile, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+
+    /**
+     * snapshot_yyyy-MM-dd_HHmmss, with _2, _3... for further snapshots taken in
+     * the same second (e.g. a scheduled backup followed by an archive's backupNow).
+     */
+    private String newSnapshotId(LocalDateTime createdAt) {
+        String base = "snapshot_" + createdAt.format(ID_FORMATTER);
+        String id = base;
+        for (int n = 2; Files.exists(manifestsDir.resolve(id + MANIFEST_SUFFIX)); n++) {
+            id = base + "_" + n;
+        }
+        return id;
+    }
+
+    private void writeManifest(Snapshot snapshot) throws IOException {
+        Path file = manifestsDir.resolve(snapshot.id() + MANIFEST_SUFFIX);
+        Path tmp = manifestsDir.resolve(snapshot.id() + MANIFEST_SUFFIX + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(MANIFEST_HEADER + "\n");
+            w.write("created=" + snapshot.createdAt() + "\n");
+            w.write("size=" + snapshot.size() + "\n");
+            w.write("sha256=" + snapshot.sha256() + "\n");
+            w.write("chunk_size=" + snapshot.chunkSize() + "\n");
+            w.write("\n");
+            for (String hash : snapshot.chunks()) {
+                w.write(hash);
+                w.write('\n');
+            }
+        }
+        // Never replace another snapshot's manifest (FileAlreadyExistsException)
+        Files.move(tmp, file);
+    }
+
+    private Snapshot readManifest(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String id = name.substring(0, name.length() - MANIFEST_SUFFIX.length());
+        LocalDateTime createdAt = null;
+        long size = -1;
+        String sha = null;
+        int manifestChunkSize = DEFAULT_CHUNK_SIZE;
+        List<String> chunks = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(r.readLine())) {
+                throw new IOException("Not a backup manifest: " + name);
+            }
+            String line;
+            while ((line = r.readLine()) != null && !line.isEmpty()) {
+                int eq = line.indexOf('=');
+                String key = line.substring(0, eq);
+                String value = line.substring(eq + 1);
+                switch (key) {
+                    case "created" -> createdAt = LocalDateTime.parse(value);
+                    case "size" -> size = Long.parseLong(value);
+                    case "sha256" -> sha = value;
+                    case "chunk_size" -> manifestChunkSize = Integer.parseInt(value);
+                    default -> {
+                        // Unknown keys from newer versions are ignored
+                    }
+                }
+            }
+            while ((line = r.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    chunks.add(line);
+                }
+            }
+        }
+        if (createdAt == null || size < 0 || sha == null) {
+            throw new IOException("Incomplete backup manifest: " + name);
+        }
+        return new Snapshot(id, createdAt, size, sha, manifestChunkSize, List.copyOf(chunks));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
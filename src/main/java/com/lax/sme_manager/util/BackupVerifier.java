@@ -0,0 +1,118 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks that a stored snapshot can actually be restored.
+ * - Rebuilds it from the store (chunk hashes and whole-file SHA-256 checked)
+ * into a scratch file, runs PRAGMA integrity_check and counts the key tables
+ * - Runs on its own minimum-priority thread with throttled reads, one
+ * snapshot at a time, so it never competes with saves
+ * - The result goes into the store's {@link BackupCatalog}
+ */
+public class BackupVerifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackupVerifier.class);
+
+    // Tables counted for the catalog, in display order; missing ones are skipped
+    // (purchase_entries_archive is in lax_archive.db snapshots since V26)
+    static final List<String> COUNTED_TABLES = List.of("purchase_entries", "purchase_entries_archive", "vendors",
+            "cheque_print_ledger", "users");
+    private static final long THROTTLE_BYTES_PER_SECOND = 8L * 1024 * 1024;
+    // integrity_check stops after this many problems; enough to tell corrupt from ok
+    private static final int MAX_INTEGRITY_ERRORS = 10;
+
+    private static final ExecutorService VERIFY_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "backup-verify");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public CompletableFuture<BackupCatalog.Entry> verifyAsync(BackupStore store, BackupStore.Snapshot snapshot) {
+        return CompletableFuture.supplyAsync(() -> verify(store, snapshot), VERIFY_EXECUTOR);
+    }
+
+    public BackupCatalog.Entry verify(BackupStore store, BackupStore.Snapshot snapshot) {
+        Path scratch = store.getRoot().resolve("verify_" + snapshot.id() + ".db");
+        BackupCatalog.Entry entry;
+        try {
+            store.restore(snapshot.id(), scratch, new IoThrottle(THROTTLE_BYTES_PER_SECOND));
+            entry = check(snapshot, scratch);
+        } catch (IOException | SQLException e) {
+            LOGGER.error("Backup {} failed verification", snapshot.id(), e);
+            entry = result(snapshot, BackupCatalog.Status.FAILED, Map.of(), e.getMessage());
+        } finally {
+            // The snapshot keeps the WAL journal mode, so opening it leaves -wal/-shm files
+            for (String suffix : List.of("", "-wal", "-shm")) {
+                try {
+                    Files.deleteIfExists(scratch.resolveSibling(scratch.getFileName() + suffix));
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        try {
+            new BackupCatalog(store).put(entry);
+        } catch (IOException e) {
+            LOGGER.warn("Could not record verification of backup {}", snapshot.id(), e);
+        }
+        LOGGER.info("Backup {} verified: {}", snapshot.id(), entry.status());
+        return entry;
+    }
+
+    /** integrity_check and row counts of a rebuilt snapshot file */
+    BackupCatalog.Entry check(BackupStore.Snapshot snapshot, Path file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only=ON");
+
+            List<String> problems = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("PRAGMA integrity_check(" + MAX_INTEGRITY_ERRORS + ")")) {
+                while (rs.next()) {
+                    problems.add(rs.getString(1));
+                }
+            }
+            if (problems.size() != 1 || !"ok".equals(problems.get(0))) {
+                return result(snapshot, BackupCatalog.Status.FAILED, Map.of(), String.join("; ", problems));
+            }
+
+            Map<String, Long> rows = new LinkedHashMap<>();
+            for (String table : COUNTED_TABLES) {
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+                    if (!rs.next() || rs.getInt(1) == 0) {
+                        continue;
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rows.put(table, rs.next() ? rs.getLong(1) : 0);
+                }
+            }
+            return result(snapshot, BackupCatalog.Status.OK, rows, null);
+        }
+    }
+
+    private static BackupCatalog.Entry result(BackupStore.Snapshot snapshot, BackupCatalog.Status status,
+            Map<String, Long> rows, String message) {
+        return new BackupCatalog.Entry(snapshot.id(), snapshot.createdAt(), snapshot.size(), snapshot.sha256(),
+                status, LocalDateTime.now(), rows, message);
+    }
+}
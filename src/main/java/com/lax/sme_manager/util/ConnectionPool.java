@@ -0,0 +1,328 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of long-lived SQLite connections.
+ * - Each physical connection runs its PRAGMA setup exactly once, on creation
+ * - Callers receive a proxy whose close() hands the connection back to the pool
+ * - Connections older than the max lifetime are retired on return
+ * - Each connection keeps a {@link StatementCache} of prepared statements
+ * - Tracks checkout wait time, lease hold time, active connections, connection
+ * lifetime and statement cache hits/misses
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String name;
+    private final String url;
+    private final int maxSize;
+    private final long maxLifetimeMillis;
+    private final long checkoutTimeoutMillis;
+    private final int statementCacheSize;
+    private final List<String> initStatements;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+    private volatile boolean shutdown = false;
+
+    // Metrics
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong totalHoldNanos = new AtomicLong();
+    private final AtomicLong maxHoldNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong totalRetiredLifetimeMillis = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public ConnectionPool(String name, String url, int maxSize, long maxLifetimeMillis,
+            long checkoutTimeoutMillis, int statementCacheSize, List<String> initStatements) {
+        this.name = name;
+        this.url = url;
+        this.maxSize = maxSize;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.initStatements = List.copyOf(initStatements);
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrow a connection. Closing the returned connection gives it back to the
+     * pool.
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool '" + name + "' is shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + checkoutTimeoutMillis
+                        + "ms waiting for a '" + name + "' database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PhysicalConnection physical = idle.pollFirst();
+            while (physical != null && !physical.isUsable()) {
+                retire(physical);
+                physical = idle.pollFirst();
+            }
+            if (physical == null) {
+                physical = open();
+            }
+            active.incrementAndGet();
+            return physical.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        checkouts.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url);
+        try (Statement stmt = raw.createStatement()) {
+            for (String sql : initStatements) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            raw.close();
+            throw e;
+        }
+        created.incrementAndGet();
+        open.incrementAndGet();
+        LOGGER.debug("Opened new '{}' connection ({} open)", name, open.get());
+        return new PhysicalConnection(raw);
+    }
+
+    private void release(PhysicalConnection physical, long holdNanos) {
+        active.decrementAndGet();
+        leases.incrementAndGet();
+        totalHoldNanos.addAndGet(holdNanos);
+        maxHoldNanos.accumulateAndGet(holdNanos, Math::max);
+        try {
+            if (shutdown || !physical.resetForReuse() || physical.isExpired()) {
+                retire(physical);
+            } else {
+                idle.offerFirst(physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void retire(PhysicalConnection physical) {
+        physical.statements.closeAll();
+        try {
+            physical.raw.close();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to close retired '{}' connection", name, e);
+        }
+        open.decrementAndGet();
+        retired.incrementAndGet();
+        totalRetiredLifetimeMillis.addAndGet(physical.ageMillis());
+    }
+
+    /**
+     * Close all idle connections and reject further checkouts. Connections that
+     * are still leased are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            retire(physical);
+        }
+        LOGGER.info("Connection pool '{}' shut down. {}", name, getStats());
+    }
+
+    public PoolStats getStats() {
+        long count = checkouts.get();
+        long leaseCount = leases.get();
+        long retiredCount = retired.get();
+        long hits = statementCacheHits.get();
+        long lookups = hits + statementCacheMisses.get();
+        return new PoolStats(
+                name,
+                maxSize,
+                active.get(),
+                open.get(),
+                count,
+                count > 0 ? totalWaitNanos.get() / count / 1_000_000.0 : 0.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                leaseCount > 0 ? totalHoldNanos.get() / leaseCount / 1_000_000.0 : 0.0,
+                maxHoldNanos.get() / 1_000_000.0,
+                created.get(),
+                retiredCount,
+                retiredCount > 0 ? totalRetiredLifetimeMillis.get() / retiredCount : 0L,
+                hits,
+                lookups - hits,
+                lookups > 0 ? (double) hits / lookups : 0.0);
+    }
+
+    /**
+     * Point-in-time snapshot of pool health.
+     */
+    public record PoolStats(String name, int maxSize, int activeConnections, int openConnections,
+            long checkouts, double avgCheckoutWaitMs, double maxCheckoutWaitMs,
+            double avgHoldMs, double maxHoldMs, long connectionsCreated, long connectionsRetired, long avgConnectionLifetimeMs,
+            long statementCacheHits, long statementCacheMisses, double statementCacheHitRatio) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "[%s] active=%d/%d open=%d checkouts=%d avgWait=%.3fms maxWait=%.3fms avgHold=%.3fms maxHold=%.3fms created=%d retired=%d avgLifetime=%dms stmtCache=%d/%d (%.1f%% hits)",
+                    name, activeConnections, maxSize, openConnections, checkouts, avgCheckoutWaitMs,
+                    maxCheckoutWaitMs, avgHoldMs, maxHoldMs, connectionsCreated, connectionsRetired, avgConnectionLifetimeMs,
+                    statementCacheHits, statementCacheHits + statementCacheMisses, statementCacheHitRatio * 100);
+        }
+    }
+
+    /**
+     * A real JDBC connection owned by the pool.
+     */
+    private final class PhysicalConnection {
+        private final Connection raw;
+        private final StatementCache statements;
+        private final long createdAtMillis = System.currentTimeMillis();
+
+        private PhysicalConnection(Connection raw) {
+            this.raw = raw;
+            this.statements = new StatementCache(raw, statementCacheSize, statementCacheHits, statementCacheMisses);
+        }
+
+        long ageMillis() {
+            return System.currentTimeMillis() - createdAtMillis;
+        }
+
+        boolean isExpired() {
+            return maxLifetimeMillis > 0 && ageMillis() > maxLifetimeMillis;
+        }
+
+        boolean isUsable() {
+            try {
+                return !raw.isClosed() && !isExpired();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo anything a caller may have left behind (open transaction, auto-commit
+         * off) so the next borrower starts clean.
+         */
+        boolean resetForReuse() {
+            try {
+                if (raw.isClosed()) {
+                    return false;
+                }
+                statements.releaseAll();
+                if (!raw.getAutoCommit()) {
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+                raw.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                LOGGER.warn("Discarding '{}' connection that could not be reset", name, e);
+                return false;
+            }
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Lease(this));
+        }
+    }
+
+    /**
+     * Handle given to callers. close(), isClosed() and prepareStatement(sql[,
+     * keys]) differ from the real connection; everything else is delegated.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final long leasedAtNanos = System.nanoTime();
+        private boolean closed = false;
+
+        private Lease(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(physical, System.nanoTime() - leasedAtNanos);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "] " + physical.raw;
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (isCacheablePrepare(method)) {
+                        Integer keys = args.length == 2 ? (Integer) args[1] : null;
+                        return physical.statements.prepare((String) args[0], keys, (Connection) proxy);
+                    }
+                    try {
+                        return method.invoke(physical.raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        private boolean isCacheablePrepare(Method method) {
+            if (!method.getName().equals("prepareStatement")) {
+                return false;
+            }
+            Class<?>[] params = method.getParameterTypes();
+            return params.length == 1 || (params.length == 2 && params[1] == int.class);
+        }
+    }
+}
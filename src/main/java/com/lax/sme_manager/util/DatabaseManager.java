@@ -8,21 +8,69 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 /**
  * Enhanced Database Manager for Production Deployment.
- * Handles persistent paths, WAL mode, and connection pooling (basic).
+ * Handles persistent paths, WAL mode, and connection pooling.
+ * Three lanes, each with its own latency stats:
+ * - write: single writer thread with group commit ({@link #write})
+ * - main: general connections ({@link #getConnection})
+ * - read: query_only connections for read-only queries and reports
+ * ({@link #getReadConnection})
  */
 public class DatabaseManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseManager.class);
     private static String dbUrl;
     private static Path dbPath;
+    private static ConnectionPool pool;
+    private static ConnectionPool readPool;
+    private static WriteExecutor writer;
+
+    // Pool sizing: SQLite serialises writers, so a handful of connections is enough
+    private static final int POOL_SIZE = 4;
+    // Separate read lane so long report scans never hold a connection that a
+    // save is waiting for (WAL readers don't block the writer)
+    private static final int READ_POOL_SIZE = 3;
+    private static final long MAX_CONNECTION_LIFETIME_MS = 30 * 60 * 1000; // 30 minutes
+    private static final long CHECKOUT_TIMEOUT_MS = 30 * 1000;
+    private static final int STATEMENT_CACHE_SIZE = 64; // per connection
+
+    // Group commit: writes arriving within this window share one transaction
+    private static final long WRITE_GROUP_WINDOW_MS = 2;
+    private static final int WRITE_GROUP_MAX_SIZE = 128;
+    private static final long WRITER_SHUTDOWN_TIMEOUT_MS = 10 * 1000;
+
+    // Free pages handed back per incremental_vacuum write (1 MB at 4 KB pages),
+    // so a save queued behind a step waits milliseconds, not seconds
+    private static final int INCREMENTAL_VACUUM_STEP_PAGES = 256;
+
+    // Applied once per physical connection, not per checkout
+    private static final List<String> CONNECTION_PRAGMAS = List.of(
+            "PRAGMA journal_mode=WAL;", // Power-cut safety + readers never block the writer
+            "PRAGMA synchronous=NORMAL;", // Safe with WAL, avoids an fsync per commit
+            "PRAGMA cache_size=-20000;", // ~20 MB page cache per connection
+            "PRAGMA mmap_size=268435456;", // 256 MB memory-mapped reads
+            "PRAGMA temp_store=MEMORY;",
+            "PRAGMA busy_timeout=5000;");
+
+    private static final List<String> READ_CONNECTION_PRAGMAS = Stream
+            .concat(CONNECTION_PRAGMAS.stream(), Stream.of("PRAGMA query_only=ON;"))
+            .toList();
 
     static {
         setupPaths();
+        pool = new ConnectionPool("main", dbUrl, POOL_SIZE, MAX_CONNECTION_LIFETIME_MS,
+                CHECKOUT_TIMEOUT_MS, STATEMENT_CACHE_SIZE, CONNECTION_PRAGMAS);
+        readPool = new ConnectionPool("read", dbUrl, READ_POOL_SIZE, MAX_CONNECTION_LIFETIME_MS,
+                CHECKOUT_TIMEOUT_MS, STATEMENT_CACHE_SIZE, READ_CONNECTION_PRAGMAS);
+        writer = new WriteExecutor("main", pool, WRITE_GROUP_WINDOW_MS, WRITE_GROUP_MAX_SIZE);
     }
 
     private static void setupPaths() {
@@ -57,15 +105,138 @@ public class DatabaseManager {
             LOGGER.error("CRITICAL: Failed to initialize database directory", e);
             throw new RuntimeException("Could not initialize storage directory: " + appDataDir, e);
         }
+        applyPendingRestore();
+    }
+
+    /**
+     * Swap in a backup staged by BackupService.prepareRestoreAsync, before any
+     * connection is open. The replaced database (with its -wal, which may hold
+     * committed data) is kept as lax_data.before-restore.db.
+     */
+    private static void applyPendingRestore() {
+        Path pending = getPendingRestoreFile();
+        if (!Files.exists(pending)) {
+            return;
+        }
+        Path previous = dbPath.resolveSibling("lax_data.before-restore.db");
+        try {
+            for (String suffix : List.of("", "-wal", "-shm")) {
+                Path from = dbPath.resolveSibling(dbPath.getFileName() + suffix);
+                Path to = previous.resolveSibling(previous.getFileName() + suffix);
+                Files.deleteIfExists(to);
+                if (Files.exists(from)) {
+                    Files.move(from, to);
+                }
+            }
+            Files.move(pending, dbPath);
+            LOGGER.info("Restored database from backup; previous database kept at {}", previous);
+        } catch (Exception e) {
+            LOGGER.error("CRITICAL: Failed to apply restored backup; check {}", dbPath.getParent(), e);
+            throw new RuntimeException("Could not apply restored backup: " + pending, e);
+        }
     }
 
+    /**
+     * Borrow a pre-configured connection from the pool.
+     * Callers must close it (try-with-resources) to hand it back.
+     */
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(dbUrl);
-        // Enable WAL mode for power-cut safety
+        return pool.getConnection();
+    }
+
+    /**
+     * Borrow a query_only connection from the read lane. Any write attempted on
+     * it fails with SQLITE_READONLY.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return readPool.getConnection();
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    public static ConnectionPool.PoolStats getReadPoolStats() {
+        return readPool.getStats();
+    }
+
+    /**
+     * Queue a write on the single writer thread. The future completes once the
+     * write's group has been committed.
+     */
+    public static <T> CompletableFuture<T> submitWrite(WriteExecutor.SqlWork<T> work) {
+        return writer.submit(work);
+    }
+
+    /**
+     * Run a write on the single writer thread and wait for it to be committed.
+     */
+    public static <T> T write(WriteExecutor.SqlWork<T> work) throws SQLException {
+        return writer.execute(work);
+    }
+
+    /**
+     * Give free pages back to the file system in small steps on the writer
+     * thread. Needs auto_vacuum=INCREMENTAL (schema V25); unlike VACUUM it never
+     * rewrites the file or holds the write lock for long.
+     *
+     * @param cancelled checked between steps
+     * @return pages released
+     */
+    public static int reclaimFreePages(BooleanSupplier cancelled) throws SQLException {
+        int released = 0;
+        while (!cancelled.getAsBoolean()) {
+            int step = write(conn -> incrementalVacuumStep(conn, INCREMENTAL_VACUUM_STEP_PAGES));
+            if (step == 0) {
+                break;
+            }
+            released += step;
+        }
+        if (released > 0) {
+            LOGGER.info("Reclaimed {} free pages", released);
+        }
+        return released;
+    }
+
+    private static int incrementalVacuumStep(Connection conn, int maxPages) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
-            stmt.execute("PRAGMA journal_mode=WAL;");
+            if (pragmaInt(stmt, "PRAGMA auto_vacuum") != 2) { // 2 = INCREMENTAL
+                return 0;
+            }
+            int start = pragmaInt(stmt, "PRAGMA freelist_count");
+            int free = start;
+            // Each execution may release one page or many depending on how the
+            // driver steps it, so loop on the freelist until the step is done
+            while (free > 0 && start - free < maxPages) {
+                stmt.execute("PRAGMA incremental_vacuum(" + (maxPages - (start - free)) + ")");
+                int after = pragmaInt(stmt, "PRAGMA freelist_count");
+                if (after >= free) {
+                    break;
+                }
+                free = after;
+            }
+            return start - free;
         }
-        return conn;
+    }
+
+    private static int pragmaInt(Statement stmt, String pragma) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(pragma)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public static WriteExecutor.WriterStats getWriterStats() {
+        return writer.getStats();
+    }
+
+    /**
+     * Flush queued writes and close pooled connections. Call once on application
+     * exit.
+     */
+    public static void shutdown() {
+        writer.shutdown(WRITER_SHUTDOWN_TIMEOUT_MS);
+        readPool.shutdown();
+        pool.shutdown();
     }
 
     public static String getUrl() {
@@ -79,4 +250,9 @@ public class DatabaseManager {
     public static Path getAppDataDir() {
         return dbPath.getParent();
     }
+
+    /** Backup staged to replace the database at the next start */
+    public static Path getPendingRestoreFile() {
+        return dbPath.resolveSibling("pending_restore.db");
+    }
 }
@@ -15,10 +15,23 @@ import java.sql.Statement;
  */
 public class DatabaseMigrator {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseMigrator.class);
-    private static final int CURRENT_VERSION = 20; // Version 20: Full Template Schema
+    private static final int CURRENT_VERSION = 26; // Version 26: Archive in lax_archive.db
 
     public void migrate() {
         try (Connection conn = DatabaseManager.getConnection()) {
+            migrate(conn);
+        } catch (SQLException e) {
+            LOGGER.error("Migration failed", e);
+            throw new RuntimeException("Could not migrate database", e);
+        }
+    }
+
+    /**
+     * Migrate the database behind the given connection (used by tests against
+     * scratch databases).
+     */
+    public void migrate(Connection conn) {
+        try {
             int dbVersion = getDatabaseVersion(conn);
 
             if (dbVersion < CURRENT_VERSION) {
@@ -130,6 +143,30 @@ public class DatabaseMigrator {
                 LOGGER.info("Executing Phase 20 Migration (Full Template Schema)...");
                 migrateToV20(stmt);
             }
+            if (fromVersion < 21) {
+                LOGGER.info("Executing Phase 21 Migration (Secondary Indexes)...");
+                migrateToV21(stmt);
+            }
+            if (fromVersion < 22) {
+                LOGGER.info("Executing Phase 22 Migration (Full-text Search Index)...");
+                migrateToV22(stmt);
+            }
+            if (fromVersion < 23) {
+                LOGGER.info("Executing Phase 23 Migration (Daily Stats Rollup)...");
+                migrateToV23(stmt);
+            }
+            if (fromVersion < 24) {
+                LOGGER.info("Executing Phase 24 Migration (Integer Paise)...");
+                migrateToV24(stmt);
+            }
+            if (fromVersion < 25) {
+                LOGGER.info("Executing Phase 25 Migration (Incremental Auto-Vacuum)...");
+                migrateToV25(stmt);
+            }
+            if (fromVersion < 26) {
+                LOGGER.info("Executing Phase 26 Migration (Separate Archive Database)...");
+                migrateToV26(conn, stmt);
+            }
         }
     }
 
@@ -539,6 +576,321 @@ public class DatabaseMigrator {
                 """);
     }
 
+    private void migrateToV21(Statement stmt) throws SQLException {
+        // Built for the real predicates in PurchaseRepository, TrendRepository and
+        // VendorAnalyticsRepository. Guarded by QueryPlanTest.
+
+        // Date-range lists, dashboard sums, trends, archiving (is_deleted = 0 AND
+        // entry_date ...). rowid is implicit, so ORDER BY entry_date, id needs no sort.
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_purchase_deleted_date ON purchase_entries (is_deleted, entry_date)");
+
+        // Vendor history, vendor analytics, vendor + status lookups
+        stmt.execute(
+                "CREATE INDEX IF NOT EXISTS idx_purchase_vendor_date ON purchase_entries (vendor_id, is_deleted, entry_date)");
+
+        // Cheques clearing on a given day
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_purchase_cheque_date ON purchase_entries (cheque_date)");
+
+        // Pending clearing (status = 'PAID')
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_purchase_status ON purchase_entries (status, is_deleted)");
+
+        // Duplicate cheque number check before printing
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_purchase_cheque_number ON purchase_entries (cheque_number)");
+
+        // Archive explorer
+        stmt.execute(
+                "CREATE INDEX IF NOT EXISTS idx_archive_deleted_date ON purchase_entries_archive (is_deleted, entry_date)");
+
+        // Print ledger (newest first) and print queue (oldest first)
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_ledger_printed_at ON cheque_print_ledger (printed_at)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_queue_created_at ON cheque_print_queue (created_at)");
+    }
+
+    private void migrateToV22(Statement stmt) throws SQLException {
+        // History search box: one FTS5 row per purchase (rowid = purchase id) so
+        // prefix search doesn't scan and join every row. prefix='2 3' keeps short
+        // as-you-type prefixes on the index.
+        stmt.execute("""
+                    CREATE VIRTUAL TABLE IF NOT EXISTS purchase_search USING fts5(
+                        vendor_name, cheque_number, status, notes,
+                        tokenize = 'unicode61', prefix = '2 3'
+                    )
+                """);
+
+        // Kept in sync by triggers, so every write path (repository, raw SQL in
+        // dialogs, archive/restore) is covered
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_purchase_search_insert AFTER INSERT ON purchase_entries
+                    BEGIN
+                        INSERT INTO purchase_search (rowid, vendor_name, cheque_number, status, notes)
+                        VALUES (new.id, (SELECT name FROM vendors WHERE id = new.vendor_id),
+                                new.cheque_number, new.status, new.notes);
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_purchase_search_update
+                    AFTER UPDATE OF vendor_id, cheque_number, status, notes ON purchase_entries
+                    BEGIN
+                        DELETE FROM purchase_search WHERE rowid = old.id;
+                        INSERT INTO purchase_search (rowid, vendor_name, cheque_number, status, notes)
+                        VALUES (new.id, (SELECT name FROM vendors WHERE id = new.vendor_id),
+                                new.cheque_number, new.status, new.notes);
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_purchase_search_delete AFTER DELETE ON purchase_entries
+                    BEGIN
+                        DELETE FROM purchase_search WHERE rowid = old.id;
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_purchase_search_vendor_rename AFTER UPDATE OF name ON vendors
+                    BEGIN
+                        UPDATE purchase_search SET vendor_name = new.name
+                        WHERE rowid IN (SELECT id FROM purchase_entries WHERE vendor_id = new.id);
+                    END
+                """);
+
+        // Backfill existing purchases
+        stmt.execute("DELETE FROM purchase_search");
+        stmt.execute("""
+                    INSERT INTO purchase_search (rowid, vendor_name, cheque_number, status, notes)
+                    SELECT p.id, v.name, p.cheque_number, p.status, p.notes
+                    FROM purchase_entries p LEFT JOIN vendors v ON p.vendor_id = v.id
+                """);
+    }
+
+    private void migrateToV23(Statement stmt) throws SQLException {
+        // Dashboard/insights rollup: one row per day, vendor and payment mode over
+        // live (not deleted, not archived) purchases, so trends cost days x vendors
+        // instead of every transaction. payment_mode '' stands for NULL (key column).
+        stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS daily_vendor_stats (
+                        entry_date DATE NOT NULL,
+                        vendor_id INTEGER NOT NULL,
+                        payment_mode TEXT NOT NULL DEFAULT '',
+                        total_bags INTEGER NOT NULL DEFAULT 0,
+                        total_amount REAL NOT NULL DEFAULT 0,
+                        txn_count INTEGER NOT NULL DEFAULT 0,
+                        PRIMARY KEY (entry_date, vendor_id, payment_mode)
+                    ) WITHOUT ROWID
+                """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_daily_stats_vendor_date ON daily_vendor_stats (vendor_id, entry_date)");
+
+        // Maintained by triggers so raw SQL writes and archiving (DELETE) are covered
+        // too. A soft delete/restore is an UPDATE of is_deleted.
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_insert AFTER INSERT ON purchase_entries
+                    WHEN new.is_deleted = 0
+                    BEGIN
+                        INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount, txn_count)
+                        VALUES (new.entry_date, new.vendor_id, COALESCE(new.payment_mode, ''), new.bags, new.grand_total, 1)
+                        ON CONFLICT (entry_date, vendor_id, payment_mode) DO UPDATE SET
+                            total_bags = total_bags + excluded.total_bags,
+                            total_amount = total_amount + excluded.total_amount,
+                            txn_count = txn_count + 1;
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_update
+                    AFTER UPDATE OF entry_date, vendor_id, payment_mode, bags, grand_total, is_deleted ON purchase_entries
+                    BEGIN
+                        UPDATE daily_vendor_stats SET
+                            total_bags = total_bags - old.bags,
+                            total_amount = total_amount - old.grand_total,
+                            txn_count = txn_count - 1
+                        WHERE old.is_deleted = 0 AND entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '');
+                        DELETE FROM daily_vendor_stats
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '') AND txn_count <= 0;
+                        INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount, txn_count)
+                        SELECT new.entry_date, new.vendor_id, COALESCE(new.payment_mode, ''), new.bags, new.grand_total, 1
+                        WHERE new.is_deleted = 0
+                        ON CONFLICT (entry_date, vendor_id, payment_mode) DO UPDATE SET
+                            total_bags = total_bags + excluded.total_bags,
+                            total_amount = total_amount + excluded.total_amount,
+                            txn_count = txn_count + 1;
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_delete AFTER DELETE ON purchase_entries
+                    WHEN old.is_deleted = 0
+                    BEGIN
+                        UPDATE daily_vendor_stats SET
+                            total_bags = total_bags - old.bags,
+                            total_amount = total_amount - old.grand_total,
+                            txn_count = txn_count - 1
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '');
+                        DELETE FROM daily_vendor_stats
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '') AND txn_count <= 0;
+                    END
+                """);
+
+        // Backfill from existing purchases
+        stmt.execute("DELETE FROM daily_vendor_stats");
+        stmt.execute("""
+                    INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount, txn_count)
+                    SELECT entry_date, vendor_id, COALESCE(payment_mode, ''), SUM(bags), SUM(grand_total), COUNT(*)
+                    FROM purchase_entries
+                    WHERE is_deleted = 0
+                    GROUP BY entry_date, vendor_id, COALESCE(payment_mode, '')
+                """);
+    }
+
+    private void migrateToV24(Statement stmt) throws SQLException {
+        // Money as exact integer paise. The REAL columns stay (still written) so a
+        // database opened by an older build keeps working; reads and sums use paise.
+        String[] moneyColumns = { "base_amount", "market_fee_amount", "commission_amount", "grand_total" };
+        for (String table : new String[] { "purchase_entries", "purchase_entries_archive" }) {
+            for (String column : moneyColumns) {
+                try {
+                    stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + "_paise INTEGER NOT NULL DEFAULT 0");
+                } catch (SQLException e) {
+                    LOGGER.warn("{}_paise column might already exist in {}.", column, table);
+                }
+                stmt.execute("UPDATE " + table + " SET " + column + "_paise = CAST(ROUND(COALESCE(" + column
+                        + ", 0) * 100) AS INTEGER)");
+            }
+        }
+
+        // Rebuild the V23 rollup on paise (derived data, so drop and backfill)
+        stmt.execute("DROP TRIGGER IF EXISTS trg_daily_stats_insert");
+        stmt.execute("DROP TRIGGER IF EXISTS trg_daily_stats_update");
+        stmt.execute("DROP TRIGGER IF EXISTS trg_daily_stats_delete");
+        stmt.execute("DROP TABLE IF EXISTS daily_vendor_stats");
+        stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS daily_vendor_stats (
+                        entry_date DATE NOT NULL,
+                        vendor_id INTEGER NOT NULL,
+                        payment_mode TEXT NOT NULL DEFAULT '',
+                        total_bags INTEGER NOT NULL DEFAULT 0,
+                        total_amount_paise INTEGER NOT NULL DEFAULT 0,
+                        txn_count INTEGER NOT NULL DEFAULT 0,
+                        PRIMARY KEY (entry_date, vendor_id, payment_mode)
+                    ) WITHOUT ROWID
+                """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_daily_stats_vendor_date ON daily_vendor_stats (vendor_id, entry_date)");
+
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_insert AFTER INSERT ON purchase_entries
+                    WHEN new.is_deleted = 0
+                    BEGIN
+                        INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount_paise, txn_count)
+                        VALUES (new.entry_date, new.vendor_id, COALESCE(new.payment_mode, ''), new.bags, new.grand_total_paise, 1)
+                        ON CONFLICT (entry_date, vendor_id, payment_mode) DO UPDATE SET
+                            total_bags = total_bags + excluded.total_bags,
+                            total_amount_paise = total_amount_paise + excluded.total_amount_paise,
+                            txn_count = txn_count + 1;
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_update
+                    AFTER UPDATE OF entry_date, vendor_id, payment_mode, bags, grand_total_paise, is_deleted ON purchase_entries
+                    BEGIN
+                        UPDATE daily_vendor_stats SET
+                            total_bags = total_bags - old.bags,
+                            total_amount_paise = total_amount_paise - old.grand_total_paise,
+                            txn_count = txn_count - 1
+                        WHERE old.is_deleted = 0 AND entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '');
+                        DELETE FROM daily_vendor_stats
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '') AND txn_count <= 0;
+                        INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount_paise, txn_count)
+                        SELECT new.entry_date, new.vendor_id, COALESCE(new.payment_mode, ''), new.bags, new.grand_total_paise, 1
+                        WHERE new.is_deleted = 0
+                        ON CONFLICT (entry_date, vendor_id, payment_mode) DO UPDATE SET
+                            total_bags = total_bags + excluded.total_bags,
+                            total_amount_paise = total_amount_paise + excluded.total_amount_paise,
+                            txn_count = txn_count + 1;
+                    END
+                """);
+        stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_daily_stats_delete AFTER DELETE ON purchase_entries
+                    WHEN old.is_deleted = 0
+                    BEGIN
+                        UPDATE daily_vendor_stats SET
+                            total_bags = total_bags - old.bags,
+                            total_amount_paise = total_amount_paise - old.grand_total_paise,
+                            txn_count = txn_count - 1
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '');
+                        DELETE FROM daily_vendor_stats
+                        WHERE entry_date = old.entry_date AND vendor_id = old.vendor_id
+                            AND payment_mode = COALESCE(old.payment_mode, '') AND txn_count <= 0;
+                    END
+                """);
+
+        stmt.execute("""
+                    INSERT INTO daily_vendor_stats (entry_date, vendor_id, payment_mode, total_bags, total_amount_paise, txn_count)
+                    SELECT entry_date, vendor_id, COALESCE(payment_mode, ''), SUM(bags), SUM(grand_total_paise), COUNT(*)
+                    FROM purchase_entries
+                    WHERE is_deleted = 0
+                    GROUP BY entry_date, vendor_id, COALESCE(payment_mode, '')
+                """);
+    }
+
+    private void migrateToV25(Statement stmt) throws SQLException {
+        // auto_vacuum only changes on an existing file through one full VACUUM;
+        // after that, freed pages are handed back in small incremental_vacuum
+        // steps (DatabaseManager.reclaimFreePages) instead of rewriting the file
+        stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+        try {
+            stmt.execute("VACUUM");
+        } catch (SQLException e) {
+            LOGGER.warn("VACUUM for auto_vacuum=INCREMENTAL failed; free pages stay reusable but unreclaimed.", e);
+        }
+    }
+
+    private void migrateToV26(Connection conn, Statement stmt) throws SQLException {
+        // Move archived rows to lax_archive.db: copy and commit there first, then
+        // drop the table here, so a crash in between only leaves a copy behind
+        ArchiveDatabase.attach(conn);
+        try {
+            int moved = stmt.executeUpdate("""
+                    INSERT OR REPLACE INTO archive.purchase_entries_archive
+                        (id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
+                         market_fee_percent, commission_percent, market_fee_amount, commission_amount,
+                         base_amount, grand_total, notes, payment_mode, advance_paid, status,
+                         cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
+                         base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise,
+                         archived_at)
+                    SELECT id, entry_date, vendor_id, bags, rate, weight_kg, is_lumpsum,
+                           market_fee_percent, commission_percent, market_fee_amount, commission_amount,
+                           base_amount, grand_total, notes, payment_mode, advance_paid, status,
+                           cheque_number, cheque_date, created_by_user, is_deleted, created_at, updated_at,
+                           base_amount_paise, market_fee_amount_paise, commission_amount_paise, grand_total_paise,
+                           archived_at
+                    FROM main.purchase_entries_archive
+                    """);
+            LOGGER.info("Moved {} archived purchases to {}", moved, ArchiveDatabase.FILE_NAME);
+        } finally {
+            ArchiveDatabase.detachQuietly(conn);
+        }
+        stmt.execute("DROP TABLE IF EXISTS main.purchase_entries_archive");
+
+        // Hand the archive's pages back (auto_vacuum=INCREMENTAL since V25); one
+        // page per execution with this driver, so loop until the freelist is empty
+        int free = freelistCount(stmt);
+        while (free > 0) {
+            stmt.execute("PRAGMA incremental_vacuum(" + free + ")");
+            int after = freelistCount(stmt);
+            if (after >= free) {
+                break;
+            }
+            free = after;
+        }
+    }
+
+    private int freelistCount(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     private void updateVersion(Connection conn, int version) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.execute("DELETE FROM schema_version");
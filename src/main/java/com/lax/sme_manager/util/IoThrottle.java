@@ -0,0 +1,52 @@
+package com.lax.sme_manager.util;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte-rate limit for background I/O (scheduled backups), so a backup of a
+ * large database doesn't saturate the disk while someone is entering data.
+ * - acquire(bytes) sleeps until the bytes fit the rate; short bursts (up to
+ * BURST_NANOS worth) pass without waiting
+ * - The rate can be changed or lifted while a backup runs (e.g. on close)
+ */
+public class IoThrottle {
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private volatile long bytesPerSecond;
+    private long nextFree;
+
+    /** @param bytesPerSecond 0 or less for no limit */
+    public IoThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public static IoThrottle unlimited() {
+        return new IoThrottle(0);
+    }
+
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public synchronized void acquire(long bytes) throws InterruptedIOException {
+        long rate = bytesPerSecond;
+        if (rate <= 0 || bytes <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextFree < now - BURST_NANOS) {
+            nextFree = now - BURST_NANOS;
+        }
+        nextFree += bytes * 1_000_000_000L / rate;
+        long wait = nextFree - now;
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Throttled I/O interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for ONE pooled connection, keyed by SQL
+ * text.
+ * - A repeated prepareStatement(sql) returns the already-compiled statement,
+ * skipping SQLite's parse/plan step
+ * - close() on the handed-out statement only resets it (result set closed,
+ * parameters cleared) and returns it to the cache
+ * - If the same SQL is prepared again while the cached copy is still open, a
+ * plain uncached statement is returned
+ * - When full, the least recently used idle statement is evicted; if every
+ * cached statement is leased the new one is handed out uncached, so the cache
+ * never holds more than maxSize
+ *
+ * Not thread-safe: a pooled connection is only used by one borrower at a time.
+ */
+class StatementCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Connection raw;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final Map<String, Entry> entries;
+
+    StatementCache(Connection raw, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.raw = raw;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param autoGeneratedKeys null for prepareStatement(sql), otherwise the flag
+     *                          passed to prepareStatement(sql, flag)
+     */
+    PreparedStatement prepare(String sql, Integer autoGeneratedKeys, Connection owner) throws SQLException {
+        String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + "|" + sql;
+        Entry entry = entries.get(key);
+
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+        } else if (entry != null) {
+            // Same SQL already open on this connection (nested use) - don't share it
+            misses.incrementAndGet();
+            return prepareRaw(sql, autoGeneratedKeys);
+        } else if (entries.size() >= maxSize && !evictIdle()) {
+            // Every cached statement is leased - hand out an uncached one rather
+            // than growing past maxSize
+            misses.incrementAndGet();
+            return prepareRaw(sql, autoGeneratedKeys);
+        } else {
+            misses.incrementAndGet();
+            entry = new Entry(prepareRaw(sql, autoGeneratedKeys));
+            entries.put(key, entry);
+        }
+
+        entry.inUse = true;
+        entry.currentResultSet = null;
+        return entry.lease(owner);
+    }
+
+    /**
+     * Close the least recently used statement nobody holds (access order, so
+     * the first idle one). False if all are leased.
+     */
+    private boolean evictIdle() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (!entry.inUse) {
+                entry.closeQuietly();
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PreparedStatement prepareRaw(String sql, Integer autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys == null ? raw.prepareStatement(sql) : raw.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Reset any statement a borrower forgot to close so the connection holds no
+     * open read cursor while idle.
+     */
+    void releaseAll() {
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                entry.reset();
+            }
+        }
+    }
+
+    void closeAll() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            it.next().closeQuietly();
+            it.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private ResultSet currentResultSet;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement lease(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new Lease(this, owner));
+        }
+
+        /**
+         * Closing the result set resets the SQLite statement, releasing its read
+         * snapshot.
+         */
+        void reset() {
+            try {
+                if (currentResultSet != null && !currentResultSet.isClosed()) {
+                    currentResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                LOGGER.debug("Failed to reset cached statement", e);
+            }
+            currentResultSet = null;
+            inUse = false;
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.debug("Failed to close cached statement", e);
+            }
+        }
+    }
+
+    /**
+     * Handle given to callers for one use of a cached statement.
+     */
+    private static final class Lease implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private boolean closed = false;
+
+        private Lease(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        entry.reset();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + entry.statement + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    try {
+                        Object result = method.invoke(entry.statement, args);
+                        if (result instanceof ResultSet rs && method.getName().startsWith("execute")) {
+                            entry.currentResultSet = rs;
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -9,18 +9,28 @@ import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Centralized vendor caching layer.
  * - Loads vendors ONCE at application start
  * - Provides filtered views without database calls
  * - Refreshable cache for new vendors created in session
+ * - findById / findByName are hash lookups (per-row use in exports stays O(1))
+ * - searchByName is a trigram index: prefix matches, then typo-tolerant ones
  */
 public class VendorCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(VendorCache.class);
 
     private final VendorRepository vendorRepository;
     private ObservableList<Vendor> allVendors = FXCollections.observableArrayList();
+    // Indexes over allVendors; swapped whole on refresh, readable from report threads
+    private volatile Map<Integer, Vendor> vendorsById = new ConcurrentHashMap<>();
+    private volatile Map<String, Vendor> vendorsByName = new ConcurrentHashMap<>();
+    // Autocomplete index; FX thread only, like allVendors
+    private final VendorSearchIndex searchIndex = new VendorSearchIndex();
     private LocalDateTime lastCacheRefresh;
     private static final long CACHE_VALIDITY_MINUTES = 30;
 
@@ -49,28 +59,15 @@ public class VendorCache {
     }
 
     /**
-     * Search vendors by name (in-memory only)
+     * Search vendors by name (in-memory only): names starting with the text,
+     * then names containing a word starting with it, then close misspellings.
+     * At most VendorSearchIndex.DEFAULT_LIMIT results for a non-empty text.
      */
     public List<Vendor> searchByName(String searchText) {
         if (searchText == null || searchText.trim().isEmpty()) {
             return List.copyOf(allVendors);
         }
-
-        String search = searchText.toLowerCase().trim();
-        return allVendors.stream()
-                .filter(v -> v.getName().toLowerCase().contains(search))
-                .sorted((v1, v2) -> {
-                    // Sort by exact match first, then alphabetical
-                    boolean v1Starts = v1.getName().toLowerCase().startsWith(search);
-                    boolean v2Starts = v2.getName().toLowerCase().startsWith(search);
-
-                    if (v1Starts && !v2Starts)
-                        return -1;
-                    if (!v1Starts && v2Starts)
-                        return 1;
-                    return v1.getName().compareTo(v2.getName());
-                })
-                .toList();
+        return searchIndex.search(searchText, VendorSearchIndex.DEFAULT_LIMIT);
     }
 
     /**
@@ -79,30 +76,27 @@ public class VendorCache {
     public Vendor findByName(String name) {
         if (name == null)
             return null;
-        return allVendors.stream()
-                .filter(v -> v.getName().equalsIgnoreCase(name.trim()))
-                .findFirst()
-                .orElse(null);
+        return vendorsByName.get(nameKey(name));
     }
 
     /**
      * Find vendor by ID
      */
     public Vendor findById(int id) {
-        return allVendors.stream()
-                .filter(v -> v.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return vendorsById.get(id);
     }
 
     /**
      * Add newly created vendor to cache
      */
     public void addVendor(Vendor vendor) {
-        if (!allVendors.contains(vendor)) {
-            allVendors.add(vendor);
-            LOGGER.debug("Added vendor to cache: {} (ID: {})", vendor.getName(), vendor.getId());
+        if (vendorsById.containsKey(vendor.getId()) || vendor.equals(findByName(vendor.getName()))) {
+            return;
         }
+        allVendors.add(vendor);
+        index(vendorsById, vendorsByName, vendor);
+        searchIndex.add(vendor);
+        LOGGER.debug("Added vendor to cache: {} (ID: {})", vendor.getName(), vendor.getId());
     }
 
     /**
@@ -112,7 +106,13 @@ public class VendorCache {
     public void refreshCache() {
         try {
             List<Vendor> vendors = vendorRepository.findAllVendors();
+            Map<Integer, Vendor> byId = new ConcurrentHashMap<>(vendors.size() * 2);
+            Map<String, Vendor> byName = new ConcurrentHashMap<>(vendors.size() * 2);
+            vendors.forEach(v -> index(byId, byName, v));
             allVendors.setAll(vendors);
+            searchIndex.rebuild(vendors);
+            vendorsById = byId;
+            vendorsByName = byName;
             lastCacheRefresh = LocalDateTime.now();
             LOGGER.info("Vendor cache refreshed. Total vendors: {}", vendors.size());
         } catch (Exception e) {
@@ -120,6 +120,18 @@ public class VendorCache {
         }
     }
 
+    private static void index(Map<Integer, Vendor> byId, Map<String, Vendor> byName, Vendor vendor) {
+        byId.putIfAbsent(vendor.getId(), vendor);
+        if (vendor.getName() != null) {
+            // First vendor wins on a case-only name clash, as the old list scan did
+            byName.putIfAbsent(nameKey(vendor.getName()), vendor);
+        }
+    }
+
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Check if cache is stale (optional - for advanced scenarios)
      */
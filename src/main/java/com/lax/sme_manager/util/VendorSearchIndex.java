@@ -0,0 +1,236 @@
+package com.lax.sme_manager.util;
+
+import com.lax.sme_manager.domain.Vendor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory, typo-tolerant vendor name search for the autocomplete.
+ * - Prefix matches first (whole name, then any word of the name), alphabetical
+ * - Then fuzzy matches ranked by how many of the query's trigrams the name
+ * contains, then by overall trigram similarity, so "rmesh" or "zavri" still
+ * find "Ramesh ..." or "Zaveri ..."
+ * - Trigram postings and the prefix map are updated per vendor, so add() never
+ * rebuilds the index
+ *
+ * Not thread-safe: VendorCache only touches it from the FX thread.
+ */
+class VendorSearchIndex {
+
+    static final int DEFAULT_LIMIT = 50;
+    // Share of the query's trigrams a name must contain; below this a fuzzy match is mostly noise
+    private static final double MIN_COVERAGE = 0.4;
+
+    private final List<Entry> entries = new ArrayList<>();
+    // Trigram -> ids of entries containing it (ascending, no duplicates)
+    private final Map<String, IntList> postings = new HashMap<>();
+    // Normalized name -> entries, and every later word suffix ("patel" of
+    // "ramesh patel") -> entries; sorted, so prefix hits come out alphabetical
+    private final NavigableMap<String, List<Entry>> names = new TreeMap<>();
+    private final NavigableMap<String, List<Entry>> wordSuffixes = new TreeMap<>();
+
+    // Scratch space for scoring, reused across queries
+    private int[] shared = new int[16];
+    private final IntList touched = new IntList();
+
+    private record Entry(int id, Vendor vendor, String normalized, int trigramCount) {
+    }
+
+
+    void rebuild(Collection<Vendor> vendors) {
+        entries.clear();
+        postings.clear();
+        names.clear();
+        wordSuffixes.clear();
+        vendors.forEach(this::add);
+    }
+
+    void add(Vendor vendor) {
+        if (vendor.getName() == null) {
+            return;
+        }
+        String normalized = normalize(vendor.getName());
+        Set<String> grams = trigrams(normalized);
+        Entry entry = new Entry(entries.size(), vendor, normalized, grams.size());
+        entries.add(entry);
+
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(entry.id());
+        }
+        names.computeIfAbsent(normalized, k -> new ArrayList<>(1)).add(entry);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            wordSuffixes.computeIfAbsent(normalized.substring(i + 1), k -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    /**
+     * Ranked matches for the typed text, at most limit vendors.
+     */
+    List<Vendor> search(String text, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // 1. Prefix hits: whole-name prefixes, then word prefixes; stops at the limit
+        List<Vendor> result = new ArrayList<>(Math.min(limit, 16));
+        Set<Entry> seen = new HashSet<>();
+        for (NavigableMap<String, List<Entry>> map : List.of(names, wordSuffixes)) {
+            for (List<Entry> bucket : map.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+                for (Entry e : bucket) {
+                    if (seen.add(e)) {
+                        result.add(e.vendor());
+                        if (result.size() == limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+
+        // 2. Fuzzy hits by trigram similarity
+        for (Entry e : similar(query, limit - result.size(), seen)) {
+            result.add(e.vendor());
+        }
+        return result;
+    }
+
+    /**
+     * Best k fuzzy matches not already in exclude, best first. Only entries
+     * sharing a trigram with the query are looked at; similarity is
+     * shared / (query + name - shared) trigrams.
+     */
+    private List<Entry> similar(String query, int k, Set<Entry> exclude) {
+        Set<String> grams = trigrams(query);
+        if (shared.length < entries.size()) {
+            shared = Arrays.copyOf(shared, Math.max(entries.size(), shared.length * 2));
+        }
+
+        // Count shared trigrams per entry by walking the query's postings only.
+        // A name needs minCommon of the q query trigrams, so it must contain one
+        // of the (q - minCommon + 1) rarest: only those lists admit candidates,
+        // the longer lists just add to counts already started.
+        int minCommon = (int) Math.ceil(grams.size() * MIN_COVERAGE);
+        List<IntList> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            IntList ids = postings.get(gram);
+            if (ids != null) {
+                lists.add(ids);
+            }
+        }
+        lists.sort(Comparator.comparingInt(l -> l.size));
+        int admitting = grams.size() - minCommon + 1;
+        for (int g = 0; g < lists.size(); g++) {
+            IntList ids = lists.get(g);
+            boolean admit = g < admitting;
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (shared[id] > 0) {
+                    shared[id]++;
+                } else if (admit) {
+                    shared[id] = 1;
+                    touched.add(id);
+                }
+            }
+        }
+
+        // Rank packed into a long: more shared trigrams first; for the same count,
+        // fewer trigrams in the name means higher similarity; then index order.
+        // A bounded min-heap keeps the k best without sorting every candidate.
+        PriorityQueue<Long> best = new PriorityQueue<>(k + 1);
+        for (int i = 0; i < touched.size; i++) {
+            int id = touched.values[i];
+            int common = shared[id];
+            shared[id] = 0;
+            if (common < minCommon) {
+                continue;
+            }
+            Entry e = entries.get(id);
+            long rank = ((long) common << 48)
+                    | ((long) (0xFFFF - Math.min(e.trigramCount(), 0xFFFF)) << 32)
+                    | (Integer.MAX_VALUE - id);
+            if ((best.size() < k || rank > best.peek()) && !exclude.contains(e)) {
+                best.add(rank);
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        }
+        touched.size = 0;
+
+        Entry[] ranked = new Entry[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = entries.get(Integer.MAX_VALUE - (int) (best.poll() & 0xFFFFFFFFL));
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /** Lower case, trimmed, runs of whitespace collapsed to one blank */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.trim().toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean blank = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                blank = true;
+            } else {
+                if (blank) {
+                    sb.append(' ');
+                    blank = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Trigrams of each word padded with two leading blanks and one trailing
+     * blank, so short words and word starts still produce grams.
+     */
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>(normalized.length() * 2 + 8);
+        int start = 0;
+        while (start < normalized.length()) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            String padded = "  " + normalized.substring(start, end) + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+            start = end + 1;
+        }
+        return grams;
+    }
+
+    /** Growable int array; postings lists stay compact at 50k+ vendors */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.lax.sme_manager.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread for the SQLite database (group commit).
+ * - Writes submitted from any thread are queued and run on one thread, so
+ * writers never compete for the database lock (no SQLITE_BUSY between them)
+ * - Writes arriving within a short window share one transaction, i.e. one
+ * fsync per group instead of one per row
+ * - Each write runs inside its own savepoint: a failing write is rolled back
+ * and fails its own future without affecting the rest of the group
+ * - Futures complete only after the group has been committed
+ */
+public class WriteExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteExecutor.class);
+
+    /**
+     * A unit of work run against the writer's connection. Must not commit,
+     * roll back or change auto-commit itself.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    private final String name;
+    private final ConnectionPool pool;
+    private final long groupWindowNanos;
+    private final int maxGroupSize;
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean shutdown = false;
+
+    // Only touched by the writer thread
+    private Connection groupConnection;
+
+    // Metrics
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong largestGroup = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public WriteExecutor(String name, ConnectionPool pool, long groupWindowMillis, int maxGroupSize) {
+        this.name = name;
+        this.pool = pool;
+        this.groupWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupWindowMillis);
+        this.maxGroupSize = maxGroupSize;
+        this.thread = new Thread(this::run, name + "-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue a write. The future completes with the work's result once its group
+     * has been committed, or exceptionally if the work or the commit failed.
+     */
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        Task<T> task = new Task<>(work);
+        if (shutdown) {
+            task.future.completeExceptionally(new SQLException("Writer '" + name + "' is shut down"));
+            return task.future;
+        }
+        queue.add(task);
+        return task.future;
+    }
+
+    /**
+     * Run a write and wait for it to be committed. Called from the writer thread
+     * itself (a write that triggers another write) the work runs inline in the
+     * current group instead of deadlocking on its own queue.
+     */
+    public <T> T execute(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == thread && groupConnection != null) {
+            return work.execute(groupConnection);
+        }
+        try {
+            return submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Database write failed", cause);
+        }
+    }
+
+    private void run() {
+        List<Task<?>> group = new ArrayList<>(maxGroupSize);
+        while (!shutdown || !queue.isEmpty()) {
+            try {
+                Task<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                collectGroup(group);
+                runGroup(group);
+            } catch (InterruptedException e) {
+                LOGGER.warn("Writer '{}' interrupted; {} write(s) abandoned", name, group.size() + queue.size());
+                group.forEach(task -> task.fail(e));
+                queue.forEach(task -> task.fail(e));
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error in '{}' writer", name, e);
+                group.forEach(task -> task.fail(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void collectGroup(List<Task<?>> group) throws InterruptedException {
+        queue.drainTo(group, maxGroupSize - group.size());
+        long deadline = System.nanoTime() + groupWindowNanos;
+        while (group.size() < maxGroupSize && !shutdown) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Task<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            queue.drainTo(group, maxGroupSize - group.size());
+        }
+    }
+
+    private void runGroup(List<Task<?>> group) {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            groupConnection = conn;
+            try {
+                for (Task<?> task : group) {
+                    task.runIn(conn);
+                }
+                long start = System.nanoTime();
+                conn.commit();
+                totalCommitNanos.addAndGet(System.nanoTime() - start);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                groupConnection = null;
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.error("Group commit of {} write(s) failed on '{}'", group.size(), name, e);
+            group.forEach(task -> task.fail(e));
+            return;
+        }
+
+        groups.incrementAndGet();
+        writes.addAndGet(group.size());
+        largestGroup.accumulateAndGet(group.size(), Math::max);
+        group.forEach(Task::complete);
+    }
+
+    /**
+     * Stop accepting writes, commit what is already queued and stop the thread.
+     */
+    public void shutdown(long timeoutMillis) {
+        // No interrupt: the writer notices the flag within one poll interval and
+        // interrupting it mid-group would break its pool checkout
+        shutdown = true;
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            LOGGER.warn("Writer '{}' did not finish within {}ms ({} write(s) still queued)",
+                    name, timeoutMillis, queue.size());
+        } else {
+            // Anything that slipped in between the flag and the thread exiting
+            Task<?> late;
+            while ((late = queue.poll()) != null) {
+                late.fail(new SQLException("Writer '" + name + "' is shut down"));
+            }
+        }
+        LOGGER.info("Writer '{}' shut down. {}", name, getStats());
+    }
+
+    public WriterStats getStats() {
+        long groupCount = groups.get();
+        long writeCount = writes.get();
+        return new WriterStats(
+                name,
+                queue.size(),
+                groupCount,
+                writeCount,
+                failedWrites.get(),
+                groupCount > 0 ? (double) writeCount / groupCount : 0.0,
+                largestGroup.get(),
+                groupCount > 0 ? totalCommitNanos.get() / groupCount / 1_000_000.0 : 0.0,
+                writeCount > 0 ? totalLatencyNanos.get() / writeCount / 1_000_000.0 : 0.0,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Point-in-time snapshot of writer throughput. Latency is submit-to-commit
+     * as seen by the caller.
+     */
+    public record WriterStats(String name, int queued, long groups, long writes, long failedWrites,
+            double avgGroupSize, long largestGroup, double avgCommitMs, double avgLatencyMs, double maxLatencyMs) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "[%s] queued=%d groups=%d writes=%d failed=%d avgGroup=%.2f largestGroup=%d avgCommit=%.3fms avgLatency=%.3fms maxLatency=%.3fms",
+                    name, queued, groups, writes, failedWrites, avgGroupSize, largestGroup, avgCommitMs,
+                    avgLatencyMs, maxLatencyMs);
+        }
+    }
+
+    private final class Task<T> {
+        private final SqlWork<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long submittedAtNanos = System.nanoTime();
+        private T result;
+        private Throwable error;
+
+        private Task(SqlWork<T> work) {
+            this.work = work;
+        }
+
+        /**
+         * Run inside a savepoint so a failure only undoes this task's changes.
+         */
+        void runIn(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = work.execute(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+                error = e;
+            }
+        }
+
+        void complete() {
+            long latency = System.nanoTime() - submittedAtNanos;
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            if (error != null) {
+                failedWrites.incrementAndGet();
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+
+        void fail(Throwable e) {
+            failedWrites.incrementAndGet();
+            future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+        }
+    }
+}
@@ -118,16 +118,15 @@ public class PurchaseEntryViewModel {
             BigDecimal mktPct = parseBigDecimalSafe(marketFeePercent.get(), BigDecimal.ZERO);
             BigDecimal commPct = parseBigDecimalSafe(commissionPercent.get(), BigDecimal.ZERO);
 
-            BigDecimal calculatedBase = FeeCalculator.calculateBaseAmount(isLumpsum.get(), bagsVal, weightVal, rateVal);
-            BigDecimal calculatedMktFee = FeeCalculator.calculateFee(calculatedBase, mktPct);
-            BigDecimal calculatedCommFee = FeeCalculator.calculateFee(calculatedBase, commPct);
-            BigDecimal calculatedTotal = FeeCalculator.calculateGrandTotal(calculatedBase, calculatedMktFee,
-                    calculatedCommFee);
+            // Runs on every keystroke: long (paise) arithmetic unless an input has
+            // more decimals than paise/grams can hold
+            FeeCalculator.PaiseBreakdown calculated = FeeCalculator.calculatePaise(isLumpsum.get(), bagsVal,
+                    weightVal, rateVal, mktPct, commPct);
 
-            baseAmount.set(calculatedBase.doubleValue());
-            marketFeeAmount.set(calculatedMktFee.doubleValue());
-            commissionFeeAmount.set(calculatedCommFee.doubleValue());
-            grandTotal.set(calculatedTotal.doubleValue());
+            baseAmount.set(calculated.base() / 100.0);
+            marketFeeAmount.set(calculated.marketFee() / 100.0);
+            commissionFeeAmount.set(calculated.commission() / 100.0);
+            grandTotal.set(calculated.grandTotal() / 100.0);
 
         } catch (Exception e) {
             LOGGER.debug("Calculation error: " + e.getMessage());
@@ -177,21 +176,17 @@ public class PurchaseEntryViewModel {
             return null;
 
         try {
-            // Capture cheque data BEFORE save resets the form
+            // Capture the vendor name BEFORE save resets the form (the entity only has its id)
             String vendorName = selectedVendor.get() != null ? selectedVendor.get().getName() : "Unknown";
-            BigDecimal total = BigDecimal.valueOf(grandTotal.get());
-            LocalDate chequeDate = entryDate.get() != null ? entryDate.get() : LocalDate.now();
 
-            performSave();
-
-            // Get the last inserted purchase ID
-            int savedId = purchaseRepository.getLastInsertedId();
+            // The saved entity carries the id generated by the insert
+            PurchaseEntity saved = performSave();
 
             statusMessage.set("Entry saved successfully!");
             isStatusError.set(false);
             resetForm();
 
-            return new ChequeSubmitResult(vendorName, total, chequeDate, savedId);
+            return new ChequeSubmitResult(vendorName, saved);
         } catch (Exception e) {
             LOGGER.error("Save failed: " + e.getMessage());
             statusMessage.set("Error saving entry: " + e.getMessage());
@@ -200,18 +195,14 @@ public class PurchaseEntryViewModel {
         }
     }
 
-    /** Data class to carry cheque info from submit to print */
+    /** Data class to carry the saved purchase from submit to print */
     public static class ChequeSubmitResult {
         public final String vendorName;
-        public final BigDecimal grandTotal;
-        public final LocalDate chequeDate;
-        public final int purchaseId;
+        public final PurchaseEntity purchase;
 
-        public ChequeSubmitResult(String vendorName, BigDecimal grandTotal, LocalDate chequeDate, int purchaseId) {
+        public ChequeSubmitResult(String vendorName, PurchaseEntity purchase) {
             this.vendorName = vendorName;
-            this.grandTotal = grandTotal;
-            this.chequeDate = chequeDate;
-            this.purchaseId = purchaseId;
+            this.purchase = purchase;
         }
     }
 
@@ -252,7 +243,7 @@ public class PurchaseEntryViewModel {
         return true;
     }
 
-    private void performSave() throws Exception {
+    private PurchaseEntity performSave() throws Exception {
         Vendor currentVendor = selectedVendor.get();
         int vendorId = currentVendor.getId();
 
@@ -320,8 +311,9 @@ public class PurchaseEntryViewModel {
         entity.setCreatedAt(LocalDateTime.now());
         entity.setUpdatedAt(LocalDateTime.now());
 
-        purchaseRepository.save(entity);
+        PurchaseEntity saved = purchaseRepository.save(entity);
         editingId = null; // Clear after save
+        return saved;
     }
 
     public void resetForm() {
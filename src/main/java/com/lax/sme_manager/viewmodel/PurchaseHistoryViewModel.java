@@ -1,9 +1,15 @@
 package com.lax.sme_manager.viewmodel;
 
+import com.lax.sme_manager.domain.Vendor;
+import com.lax.sme_manager.event.DomainEvent;
+import com.lax.sme_manager.event.EventBus;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchaseHistoryRow;
+import com.lax.sme_manager.repository.model.PurchasePage;
 import com.lax.sme_manager.service.PurchaseHistoryService;
 import com.lax.sme_manager.ui.state.PurchaseHistoryFilterState;
 import com.lax.sme_manager.util.AppLogger;
+import com.lax.sme_manager.util.VendorCache;
 import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
@@ -13,19 +19,22 @@ import org.slf4j.Logger;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import com.lax.sme_manager.repository.PrintQueueRepository;
 import com.lax.sme_manager.repository.model.PrintQueueItem;
 
 public class PurchaseHistoryViewModel {
     private static final Logger LOGGER = AppLogger.getLogger(PurchaseHistoryViewModel.class);
     private final PurchaseHistoryService historyService;
+    private final VendorCache vendorCache;
 
     // State is encapsulated here
     public final PurchaseHistoryFilterState filterState;
 
     // Data List
-    public final ObservableList<PurchaseEntity> purchaseList = FXCollections.observableArrayList();
-    public final ObservableList<PurchaseEntity> selectedPurchases = FXCollections.observableArrayList();
+    // Rows carry the vendor name from the history query: rendering never hits the DB
+    public final ObservableList<PurchaseHistoryRow> purchaseList = FXCollections.observableArrayList();
+    public final ObservableList<PurchaseHistoryRow> selectedPurchases = FXCollections.observableArrayList();
     public final IntegerProperty queueCount = new SimpleIntegerProperty(0);
 
     private final PrintQueueRepository queueRepository = new PrintQueueRepository();
@@ -38,12 +47,28 @@ public class PurchaseHistoryViewModel {
     public final IntegerProperty totalRecords = new SimpleIntegerProperty(0);
     public final IntegerProperty filteredRecords = new SimpleIntegerProperty(0);
 
-    public PurchaseHistoryViewModel(PurchaseHistoryService historyService) {
+    // Keyset pagination: the cursor the current page was fetched from, and the
+    // last page loaded (its first/last cursors drive prev/next)
+    private String pageCursor = null;
+    private boolean pageBackward = false;
+    private PurchasePage loadedPage = PurchasePage.empty();
+
+    // Held here because the bus only references it weakly: this view model is
+    // recreated with its view
+    private final Consumer<DomainEvent> eventHandler = event -> Platform.runLater(() -> onDomainEvent(event));
+
+    public PurchaseHistoryViewModel(PurchaseHistoryService historyService, VendorCache vendorCache) {
         this.historyService = historyService;
+        this.vendorCache = vendorCache;
         this.filterState = new PurchaseHistoryFilterState();
 
         // Reload when page changes or search query/filters change
-        filterState.currentPage.addListener((obs, old, newVal) -> loadPurchases());
+        filterState.currentPage.addListener((obs, old, newVal) -> {
+            if (newVal.intValue() == 0) {
+                resetCursor();
+            }
+            loadPurchases();
+        });
         filterState.searchQuery.addListener((obs, old, newVal) -> applyFilters());
         filterState.filterStartDate.addListener((obs, old, newVal) -> applyFilters());
         filterState.filterEndDate.addListener((obs, old, newVal) -> applyFilters());
@@ -52,6 +77,7 @@ public class PurchaseHistoryViewModel {
         filterState.filterVendorIds.addListener((javafx.collections.ListChangeListener<Integer>) c -> applyFilters());
 
         refreshQueueCount();
+        EventBus.subscribeWeak(DomainEvent.class, eventHandler);
     }
 
     public PurchaseHistoryFilterState getFilterState() {
@@ -60,23 +86,51 @@ public class PurchaseHistoryViewModel {
 
     public void applyFilters() {
         // Reset to page 0 when filtering
+        resetCursor();
         filterState.currentPage.set(0);
         loadPurchases();
     }
 
+    /**
+     * All purchases matching the current filters (every page), for export.
+     * The filters are read now, on the FX thread; the returned supplier opens
+     * the stream (to be closed) and may run on any thread.
+     */
+    public java.util.function.Supplier<java.util.stream.Stream<PurchaseEntity>> filteredPurchasesForExport(
+            int fetchSize) {
+        LocalDate start = filterState.filterStartDate.get();
+        LocalDate end = filterState.filterEndDate.get();
+        List<Integer> vendorIds = List.copyOf(filterState.filterVendorIds);
+        java.math.BigDecimal minAmount = filterState.filterMinAmount.get();
+        java.math.BigDecimal maxAmount = filterState.filterMaxAmount.get();
+        Boolean chequeIssued = filterState.filterChequeIssued.get();
+        String searchQuery = filterState.searchQuery.get();
+        return () -> historyService.streamPurchases(start, end, vendorIds, minAmount, maxAmount, chequeIssued,
+                searchQuery, fetchSize);
+    }
+
     public void resetFilters() {
+        resetCursor();
         filterState.resetFilters();
         loadPurchases();
     }
 
+    private void resetCursor() {
+        pageCursor = null;
+        pageBackward = false;
+    }
+
     public void loadPurchases() {
         isLoading.set(true);
         statusMessage.set("Loading history...");
 
+        String cursor = pageCursor;
+        boolean backward = pageBackward;
+
         CompletableFuture.supplyAsync(() -> {
             try {
                 // Get Data
-                List<PurchaseEntity> data = historyService.fetchPurchases(
+                PurchasePage page = historyService.fetchPurchases(
                         filterState.filterStartDate.get(),
                         filterState.filterEndDate.get(),
                         filterState.filterVendorIds,
@@ -84,7 +138,8 @@ public class PurchaseHistoryViewModel {
                         filterState.filterMaxAmount.get(),
                         filterState.filterChequeIssued.get(),
                         filterState.searchQuery.get(),
-                        filterState.currentPage.get());
+                        cursor,
+                        backward);
 
                 // Get Counts
                 int filteredCount = historyService.getTotalFilteredCount(
@@ -101,19 +156,20 @@ public class PurchaseHistoryViewModel {
                 // Let's just use filtered count for now to save a query if "Total" isn't
                 // strictly required
 
-                return new HistoryResult(data, filteredCount);
+                return new HistoryResult(page, filteredCount);
             } catch (Exception e) {
                 LOGGER.error("Load failed", e);
                 throw e;
             }
         }).thenAccept(result -> Platform.runLater(() -> {
-            purchaseList.setAll(result.data);
+            loadedPage = result.page;
+            purchaseList.setAll(result.page.items());
 
             // Calculate pages
             int total = result.filteredCount;
             filteredRecords.set(total);
 
-            int pageSize = 50; // Must match Service PAGE_SIZE
+            int pageSize = historyService.getPageSize();
             int pages = (int) Math.ceil((double) total / pageSize);
             if (pages == 0)
                 pages = 1;
@@ -122,7 +178,12 @@ public class PurchaseHistoryViewModel {
             paginationLabel.set("Page " + (filterState.currentPage.get() + 1) + " / " + pages);
 
             isLoading.set(false);
-            statusMessage.set("Loaded " + result.data.size() + " entries");
+            statusMessage.set("Loaded " + result.page.items().size() + " entries");
+
+            // A backward seek that ran out of rows comes back as the first page
+            if (!result.page.hasPrevious() && filterState.currentPage.get() > 0) {
+                filterState.currentPage.set(0);
+            }
 
         })).exceptionally(ex -> {
             Platform.runLater(() -> {
@@ -134,13 +195,18 @@ public class PurchaseHistoryViewModel {
     }
 
     public void nextPage() {
-        if (filterState.currentPage.get() < filterState.totalPages.get() - 1) {
+        if (loadedPage.hasNext()) {
+            pageCursor = loadedPage.lastCursor();
+            pageBackward = false;
             filterState.currentPage.set(filterState.currentPage.get() + 1);
         }
     }
 
     public void prevPage() {
         if (filterState.currentPage.get() > 0) {
+            // Seek back from the first row shown; page 0 is reset to "no cursor"
+            pageCursor = loadedPage.firstCursor();
+            pageBackward = pageCursor != null;
             filterState.currentPage.set(filterState.currentPage.get() - 1);
         }
     }
@@ -149,7 +215,6 @@ public class PurchaseHistoryViewModel {
         CompletableFuture.runAsync(() -> {
             historyService.deletePurchase(p.getId());
         }).thenRun(() -> Platform.runLater(() -> {
-            loadPurchases();
             statusMessage.set("Entry deleted successfully.");
         })).exceptionally(ex -> {
             Platform.runLater(() -> statusMessage.set("Error deleting: " + ex.getMessage()));
@@ -161,12 +226,11 @@ public class PurchaseHistoryViewModel {
         if (selectedPurchases.isEmpty())
             return;
 
-        List<Integer> ids = selectedPurchases.stream().map(PurchaseEntity::getId).toList();
+        List<Integer> ids = selectedPurchases.stream().map(PurchaseHistoryRow::id).toList();
         CompletableFuture.runAsync(() -> {
             historyService.deletePurchases(ids);
         }).thenRun(() -> Platform.runLater(() -> {
             selectedPurchases.clear();
-            loadPurchases();
             statusMessage.set("Selected entries deleted successfully.");
         })).exceptionally(ex -> {
             Platform.runLater(() -> statusMessage.set("Error bulk deleting: " + ex.getMessage()));
@@ -175,32 +239,48 @@ public class PurchaseHistoryViewModel {
     }
 
     public void markAsCleared(PurchaseEntity p) {
+        markAsCleared(List.of(p.getId()));
+    }
+
+    public void markSelectedAsCleared() {
+        if (selectedPurchases.isEmpty())
+            return;
+
+        markAsCleared(selectedPurchases.stream().map(PurchaseHistoryRow::id).toList());
+        selectedPurchases.clear();
+    }
+
+    private void markAsCleared(List<Integer> ids) {
         CompletableFuture.runAsync(() -> {
-            historyService.updateStatus(p.getId(), "CLEARED");
+            historyService.updateStatus(ids, "CLEARED");
         }).thenRun(() -> Platform.runLater(() -> {
-            loadPurchases();
-            statusMessage.set("Payment marked as CLEARED.");
+            statusMessage.set(ids.size() == 1 ? "Payment marked as CLEARED."
+                    : ids.size() + " payments marked as CLEARED.");
         })).exceptionally(ex -> {
             Platform.runLater(() -> statusMessage.set("Error clearing: " + ex.getMessage()));
             return null;
         });
     }
 
-    public void addToPrintQueue(List<PurchaseEntity> selected) {
+    public void addToPrintQueue(List<PurchaseHistoryRow> selected) {
         if (selected == null || selected.isEmpty())
             return;
 
         CompletableFuture.runAsync(() -> {
-            for (PurchaseEntity p : selected) {
+            // Queued on the writer together, so the whole selection commits as one group
+            List<CompletableFuture<PrintQueueItem>> inserts = new java.util.ArrayList<>();
+            for (PurchaseHistoryRow row : selected) {
+                PurchaseEntity p = row.purchase();
                 PrintQueueItem item = PrintQueueItem.builder()
                         .purchaseId(p.getId())
-                        .payeeName(historyService.getVendorName(p.getVendorId()))
+                        .payeeName(row.vendorName())
                         .amount(p.getGrandTotal().doubleValue())
                         .chequeDate(p.getChequeDate() != null ? p.getChequeDate() : LocalDate.now())
                         .isAcPayee(true)
                         .build();
-                queueRepository.addItem(item);
+                inserts.add(queueRepository.addItem(item));
             }
+            CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).join();
         }).thenRun(() -> Platform.runLater(() -> {
             statusMessage.set("Added " + selected.size() + " items to print queue.");
             refreshQueueCount();
@@ -210,11 +290,109 @@ public class PurchaseHistoryViewModel {
         });
     }
 
+    private void replaceRow(List<PurchaseHistoryRow> rows, PurchaseEntity updated) {
+        for (int i = 0; i < rows.size(); i++) {
+            PurchaseHistoryRow row = rows.get(i);
+            if (row.id().equals(updated.getId())) {
+                // Vendor names come from the in-memory cache; no query on the FX thread
+                String vendorName = row.vendorName();
+                if (!java.util.Objects.equals(row.purchase().getVendorId(), updated.getVendorId())) {
+                    Vendor vendor = updated.getVendorId() != null ? vendorCache.findById(updated.getVendorId())
+                            : null;
+                    vendorName = vendor != null ? vendor.getName() : "Unknown Vendor";
+                }
+                rows.set(i, new PurchaseHistoryRow(updated, vendorName));
+            }
+        }
+    }
+
     public void refreshQueueCount() {
         CompletableFuture.supplyAsync(queueRepository::countItems)
                 .thenAccept(count -> Platform.runLater(() -> queueCount.set(count)));
     }
 
-    private record HistoryResult(List<PurchaseEntity> data, int filteredCount) {
+    /**
+     * Patch the loaded page in place from a committed change instead of
+     * re-running the page and count queries. FX thread only.
+     */
+    private void onDomainEvent(DomainEvent event) {
+        switch (event) {
+            case DomainEvent.PurchaseDeleted deleted -> removeRows(deleted.ids());
+            case DomainEvent.StatusChanged changed -> {
+                // Status is in the search index: the row may no longer match
+                if (isSearching()) {
+                    loadPurchases();
+                } else {
+                    patchRows(changed.ids(), p -> p.toBuilder().status(changed.status()).build());
+                }
+            }
+            case DomainEvent.ChequesIssued issued -> {
+                // A cheque number can move the row across the cheque-issued filter or a search
+                if (filterState.filterChequeIssued.get() != null || isSearching()) {
+                    loadPurchases();
+                } else {
+                    java.util.Map<Integer, DomainEvent.ChequesIssued.Cheque> byId = new java.util.HashMap<>();
+                    issued.cheques().forEach(c -> byId.put(c.purchaseId(), c));
+                    patchRows(byId.keySet(), p -> {
+                        DomainEvent.ChequesIssued.Cheque cheque = byId.get(p.getId());
+                        return p.toBuilder().status("PAID").chequeNumber(cheque.chequeNumber())
+                                .chequeDate(cheque.chequeDate()).build();
+                    });
+                }
+            }
+            case DomainEvent.PurchaseSaved saved -> {
+                // Edits are patched; a new entry's position depends on the
+                // filters and sort, so it shows up on the next load
+                if (!saved.created()) {
+                    replaceRow(purchaseList, saved.purchase());
+                    replaceRow(selectedPurchases, saved.purchase());
+                }
+            }
+            // Rows reappearing or leaving by date: positions unknown, reload
+            case DomainEvent.PurchaseRestored restored -> loadPurchases();
+            case DomainEvent.PurchasesArchived archived -> loadPurchases();
+            case DomainEvent.VendorCreated created -> {
+            }
+        }
+    }
+
+    /**
+     * Replace (never mutate) the matching rows: the old entity may be shared,
+     * e.g. by PurchaseHistoryService's recent-purchase cache.
+     */
+    private void patchRows(java.util.Collection<Integer> ids,
+            java.util.function.UnaryOperator<PurchaseEntity> patch) {
+        for (List<PurchaseHistoryRow> rows : List.of(purchaseList, selectedPurchases)) {
+            for (int i = 0; i < rows.size(); i++) {
+                PurchaseHistoryRow row = rows.get(i);
+                if (ids.contains(row.id())) {
+                    rows.set(i, new PurchaseHistoryRow(patch.apply(row.purchase()), row.vendorName()));
+                }
+            }
+        }
+    }
+
+    private boolean isSearching() {
+        String query = filterState.searchQuery.get();
+        return query != null && !query.isBlank();
+    }
+
+    private void removeRows(List<Integer> ids) {
+        int before = purchaseList.size();
+        purchaseList.removeIf(row -> ids.contains(row.id()));
+        selectedPurchases.removeIf(row -> ids.contains(row.id()));
+        int removed = before - purchaseList.size();
+        if (removed == 0) {
+            return;
+        }
+
+        int total = Math.max(0, filteredRecords.get() - removed);
+        filteredRecords.set(total);
+        int pages = Math.max(1, (int) Math.ceil((double) total / historyService.getPageSize()));
+        filterState.totalPages.set(pages);
+        paginationLabel.set("Page " + (filterState.currentPage.get() + 1) + " / " + pages);
+    }
+
+    private record HistoryResult(PurchasePage page, int filteredCount) {
     }
 }
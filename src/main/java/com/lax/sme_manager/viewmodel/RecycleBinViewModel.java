@@ -51,12 +51,20 @@ public class RecycleBinViewModel {
     public void restorePurchase(PurchaseEntity p) {
         if (p == null)
             return;
+        restorePurchases(List.of(p));
+    }
+
+    public void restorePurchases(List<PurchaseEntity> entries) {
+        if (entries == null || entries.isEmpty())
+            return;
 
+        List<Integer> ids = entries.stream().map(PurchaseEntity::getId).toList();
         CompletableFuture.runAsync(() -> {
-            purchaseRepository.restore(p.getId());
+            purchaseRepository.restoreAll(ids);
         }).thenRun(() -> Platform.runLater(() -> {
             loadDeletedPurchases();
-            statusMessage.set("Entry restored successfully.");
+            statusMessage.set(ids.size() == 1 ? "Entry restored successfully."
+                    : ids.size() + " entries restored successfully.");
         })).exceptionally(ex -> {
             Platform.runLater(() -> statusMessage.set("Error restoring: " + ex.getMessage()));
             return null;
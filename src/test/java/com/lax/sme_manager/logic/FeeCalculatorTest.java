@@ -36,4 +36,72 @@ public class FeeCalculatorTest {
                 new BigDecimal("20"));
         assertEquals(new BigDecimal("1027.00"), total);
     }
+
+    // --- Long (paise) path: same cases as above, plus a sweep against the BigDecimal path ---
+
+    @Test
+    public void testBaseAmountPaise_Lumpsum() {
+        // Bags 10, Rate 100.00 -> 1000.00
+        assertEquals(100000L, FeeCalculator.calculateBaseAmountPaise(true, 10, 0, 10000));
+    }
+
+    @Test
+    public void testBaseAmountPaise_Weight() {
+        // Weight 100kg, Rate 200 -> 1000.00
+        assertEquals(100000L, FeeCalculator.calculateBaseAmountPaise(false, 0, 100_000, 20000));
+    }
+
+    @Test
+    public void testFeePaise() {
+        // Amount 1000, Fee 0.70% = 7.00
+        assertEquals(700L, FeeCalculator.calculateFeePaise(100000, 70));
+    }
+
+    @Test
+    public void testGrandTotalPaise() {
+        // Base 1000, Market 7, Commission 20 = 1027
+        assertEquals(102700L, FeeCalculator.calculateGrandTotalPaise(100000, 700, 2000));
+    }
+
+    @Test
+    public void testPaisePathMatchesBigDecimalPath() {
+        String[] weights = { "0", "1", "0.5", "12.345", "99.999", "100", "1234.567" };
+        String[] rates = { "0", "1", "0.01", "0.05", "99.99", "200", "1234.56" };
+        String[] percents = { "0", "0.70", "2.00", "1.25", "0.05", "12.34" };
+        int[] bags = { 0, 1, 7, 10, 333 };
+
+        for (String w : weights) {
+            for (String r : rates) {
+                for (String pct : percents) {
+                    for (int b : bags) {
+                        for (boolean lumpsum : new boolean[] { true, false }) {
+                            assertParity(lumpsum, b, new BigDecimal(w), new BigDecimal(r), new BigDecimal(pct));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPaisePathFallsBackForExtraPrecision() {
+        // Rate with 3 decimals doesn't fit in paise: must still match the BigDecimal path
+        assertParity(false, 0, new BigDecimal("37.5"), new BigDecimal("123.456"), new BigDecimal("0.70"));
+        assertParity(true, 3, BigDecimal.ZERO, new BigDecimal("0.335"), new BigDecimal("2.125"));
+    }
+
+    private void assertParity(boolean lumpsum, int bags, BigDecimal weight, BigDecimal rate, BigDecimal percent) {
+        BigDecimal base = FeeCalculator.calculateBaseAmount(lumpsum, bags, weight, rate);
+        BigDecimal fee = FeeCalculator.calculateFee(base, percent);
+        BigDecimal commission = FeeCalculator.calculateFee(base, new BigDecimal("2.00"));
+        BigDecimal total = FeeCalculator.calculateGrandTotal(base, fee, commission);
+
+        FeeCalculator.PaiseBreakdown paise = FeeCalculator.calculatePaise(lumpsum, bags, weight, rate, percent,
+                new BigDecimal("2.00"));
+        String input = "lumpsum=" + lumpsum + " bags=" + bags + " weight=" + weight + " rate=" + rate + " pct=" + percent;
+        assertEquals(input, FeeCalculator.toPaise(base), paise.base());
+        assertEquals(input, FeeCalculator.toPaise(fee), paise.marketFee());
+        assertEquals(input, FeeCalculator.toPaise(commission), paise.commission());
+        assertEquals(input, FeeCalculator.toPaise(total), paise.grandTotal());
+    }
 }
@@ -0,0 +1,202 @@
+package com.lax.sme_manager.repository;
+
+import com.lax.sme_manager.util.ArchiveDatabase;
+import com.lax.sme_manager.util.DatabaseMigrator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on repository queries against a freshly migrated
+ * schema and fails if any of them falls back to a full scan of a large table.
+ * Small lookup tables (vendors, users) and the daily_vendor_stats rollup
+ * (one row per day, vendor and payment mode) may still be scanned.
+ */
+public class QueryPlanTest {
+
+    private static final Set<String> LOOKUP_TABLES = Set.of("vendors", "v", "users", "u", "daily_vendor_stats", "d");
+
+    private static Connection conn;
+
+    @BeforeClass
+    public static void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new DatabaseMigrator().migrate(conn);
+        // Archive queries run against the attached lax_archive.db (in-memory here)
+        ArchiveDatabase.attach(conn);
+    }
+
+    @AfterClass
+    public static void tearDown() throws SQLException {
+        if (conn != null) {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testPurchaseRepositoryQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(PurchaseRepository.FIND_BY_ID_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_ALL_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_BY_DATE_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_BY_VENDOR_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_BY_DATE_RANGE_SQL);
+        assertRange(PurchaseRepository.FIND_BY_DATE_RANGE_SQL, true, true);
+        assertNoFullScan(PurchaseRepository.BAGS_COUNT_SQL);
+        assertNoFullScan(PurchaseRepository.TOTAL_AMOUNT_SQL);
+        assertNoFullScan(PurchaseRepository.PENDING_CHEQUES_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_BY_VENDOR_AND_STATUS_SQL);
+        assertNoFullScan(PurchaseRepository.CHEQUES_BY_CLEARING_DATE_SQL);
+        assertNoFullScan(PurchaseRepository.PENDING_CLEARING_SQL);
+        assertNoFullScan(PurchaseRepository.DASHBOARD_TOTALS_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_ALL_DELETED_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_ALL_ARCHIVED_SQL);
+        assertNoFullScan(PurchaseRepository.SOFT_DELETE_ALL_SQL);
+        assertNoFullScan(PurchaseRepository.RESTORE_ALL_SQL);
+        assertNoFullScan(PurchaseRepository.UPDATE_STATUS_ALL_SQL);
+        assertNoFullScan(PurchaseRepository.MARK_CHEQUE_ISSUED_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_COUNT_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_CHUNK_IDS_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_INSERT_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_DELETE_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_VERSIONS_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_DISCARD_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVED_ROW_SQL);
+        assertNoFullScan(PurchaseRepository.ARCHIVE_DROP_RESTORED_SQL);
+        assertNoFullScan(PurchaseRepository.FIND_BY_DATE_RANGE_ALL_PERIODS_SQL);
+        assertNoSort(PurchaseRepository.FIND_BY_DATE_RANGE_ALL_PERIODS_SQL);
+        assertRange(PurchaseRepository.FIND_BY_DATE_RANGE_ALL_PERIODS_SQL, true, true);
+        assertNoFullScan(PurchaseRepository.EXISTS_BY_DATE_RANGE_SQL);
+        assertRange(PurchaseRepository.EXISTS_BY_DATE_RANGE_SQL, true, true);
+        assertNoFullScan(PurchaseRepository.EXISTS_BY_DATE_RANGE_ALL_PERIODS_SQL);
+    }
+
+    @Test
+    public void testFilteredPurchaseQueriesUseIndexes() throws SQLException {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        BigDecimal amount = new BigDecimal("1000");
+
+        // No filters, date range only, vendors only, amounts, cheque flag, search
+        assertFilteredNoFullScan(null, null, null, null, null, null, null);
+        assertFilteredNoFullScan(from, to, null, null, null, null, null);
+        assertFilteredNoFullScan(null, null, List.of(1, 2, 3), null, null, null, null);
+        assertFilteredNoFullScan(from, to, List.of(1), amount, amount, Boolean.TRUE, null);
+        assertFilteredNoFullScan(null, null, null, null, null, Boolean.FALSE, "ram");
+        assertFilteredNoFullScan(from, to, List.of(1, 2), null, null, null, "ram tra");
+    }
+
+    @Test
+    public void testTrendRepositoryQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(TrendRepository.WEEKLY_BAGS_SQL);
+        assertNoFullScan(TrendRepository.PAYMENT_MODE_SQL);
+        assertNoFullScan(TrendRepository.TOP_VENDORS_SQL);
+    }
+
+    @Test
+    public void testVendorAnalyticsQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(VendorAnalyticsRepository.MONTHLY_SUPPLY_SQL);
+        assertNoFullScan(VendorAnalyticsRepository.PRICE_HISTORY_SQL);
+        assertNoFullScan(VendorAnalyticsRepository.VENDOR_SUMMARY_SQL);
+    }
+
+    @Test
+    public void testPrintQueriesUseIndexes() throws SQLException {
+        assertNoFullScan(PrintLedgerRepository.ALL_LOGS_SQL);
+        assertNoFullScan(PrintQueueRepository.ALL_ITEMS_SQL);
+        assertNoFullScan(PrintQueueRepository.COUNT_ITEMS_SQL);
+    }
+
+    private void assertFilteredNoFullScan(LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
+            BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued, String searchQuery)
+            throws SQLException {
+        StringBuilder select = new StringBuilder(PurchaseRepository.filteredSelectSql(searchQuery));
+        PurchaseRepository.buildFilterQuery(select, new ArrayList<>(), startDate, endDate, vendorIds,
+                minAmount, maxAmount, chequeIssued, searchQuery);
+        assertNoFullScan(select + PurchaseRepository.FILTERED_PAGE_SQL);
+        assertNoFullScan(select + PurchaseRepository.FILTERED_AFTER_CURSOR_SQL + PurchaseRepository.FILTERED_PAGE_SQL);
+        assertNoFullScan(select + PurchaseRepository.FILTERED_BEFORE_CURSOR_SQL
+                + PurchaseRepository.FILTERED_PAGE_BACKWARD_SQL);
+
+        StringBuilder count = new StringBuilder(PurchaseRepository.filteredCountSql(searchQuery));
+        PurchaseRepository.buildFilterQuery(count, new ArrayList<>(), startDate, endDate, vendorIds,
+                minAmount, maxAmount, chequeIssued, searchQuery);
+        assertNoFullScan(count.toString());
+
+        if (searchQuery == null) {
+            // Dates and the keyset cursor must bound the index walk, not only filter its rows
+            assertRange(select + PurchaseRepository.FILTERED_PAGE_SQL, startDate != null, endDate != null);
+            assertRange(select + PurchaseRepository.FILTERED_AFTER_CURSOR_SQL + PurchaseRepository.FILTERED_PAGE_SQL,
+                    startDate != null, true);
+            assertRange(select + PurchaseRepository.FILTERED_BEFORE_CURSOR_SQL
+                    + PurchaseRepository.FILTERED_PAGE_BACKWARD_SQL, true, endDate != null);
+            assertRange(count.toString(), startDate != null, endDate != null);
+        }
+    }
+
+    private void assertNoFullScan(String sql) throws SQLException {
+        List<String> plan = explain(sql);
+        for (String step : plan) {
+            if (isFullScan(step)) {
+                fail("Full table scan (" + step + ") in plan for:\n" + sql + "\nPlan: " + plan);
+            }
+        }
+    }
+
+    /** An index walk with entry_date only as a row filter has no SCAN either */
+    private void assertRange(String sql, boolean lower, boolean upper) throws SQLException {
+        List<String> plan = explain(sql);
+        String steps = String.join("\n", plan);
+        if ((lower && !steps.contains("entry_date>?")) || (upper && !steps.contains("entry_date<?"))) {
+            fail("entry_date range not used as an index bound for:\n" + sql + "\nPlan: " + plan);
+        }
+    }
+
+    /** Streamed queries must come off the index in order, not sorted up front */
+    private void assertNoSort(String sql) throws SQLException {
+        List<String> plan = explain(sql);
+        for (String step : plan) {
+            if (step.contains("TEMP B-TREE")) {
+                fail("Sort (" + step + ") in plan for:\n" + sql + "\nPlan: " + plan);
+            }
+        }
+    }
+
+    private static boolean isFullScan(String step) {
+        // "SCAN x VIRTUAL TABLE INDEX ..." is an FTS5 index lookup or a json_each id list, not a table scan
+        if (!step.startsWith("SCAN ") || step.contains(" USING ") || step.contains(" VIRTUAL TABLE ")) {
+            return false;
+        }
+        String target = step.substring("SCAN ".length()).replaceFirst("^TABLE ", "").split(" ")[0];
+        return !target.equals("CONSTANT") && !LOOKUP_TABLES.contains(target);
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int params = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                pstmt.setNull(i, Types.NULL);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+        }
+        return steps;
+    }
+}
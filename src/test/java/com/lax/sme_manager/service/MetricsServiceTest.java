@@ -1,7 +1,9 @@
 package com.lax.sme_manager.service;
 
+import com.lax.sme_manager.event.DomainEvent;
 import com.lax.sme_manager.repository.IPurchaseRepository;
 import com.lax.sme_manager.repository.model.PurchaseEntity;
+import com.lax.sme_manager.repository.model.PurchasePage;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -35,11 +37,55 @@ public class MetricsServiceTest {
         assertEquals(5, metrics.getUnpaidChequesTotal());
     }
 
+    @Test
+    public void testDashboardMetricsCachedUntilRelevantWrite() {
+        FakePurchaseRepository fakeRepo = new FakePurchaseRepository();
+        fakeRepo.setBagsCount(10);
+        MetricsService service = new MetricsService(fakeRepo, new FakeTrendRepository());
+
+        service.getDashboardMetrics();
+        int callsAfterFirstLoad = fakeRepo.getBagsCountCalls();
+
+        // Repeat visit is served from memory
+        service.getDashboardMetrics();
+        assertEquals(callsAfterFirstLoad, fakeRepo.getBagsCountCalls());
+
+        // A back-dated cash entry can't change this week's/month's totals
+        service.onPurchaseWritten(PurchaseEntity.builder()
+                .entryDate(LocalDate.now().minusYears(2)).paymentMode("CASH").status("UNPAID").build());
+        service.getDashboardMetrics();
+        assertEquals(callsAfterFirstLoad, fakeRepo.getBagsCountCalls());
+
+        // A save dated today invalidates
+        fakeRepo.setBagsCount(11);
+        service.onPurchaseWritten(PurchaseEntity.builder()
+                .entryDate(LocalDate.now()).paymentMode("CASH").status("UNPAID").build());
+        MetricsService.DashboardMetrics metrics = service.getDashboardMetrics();
+        assertEquals(2 * callsAfterFirstLoad, fakeRepo.getBagsCountCalls());
+        assertEquals(11, metrics.getBagsToday());
+
+        // Unknown rows (status change, delete) invalidate too
+        service.onPurchaseWritten(null);
+        service.getDashboardMetrics();
+        assertEquals(3 * callsAfterFirstLoad, fakeRepo.getBagsCountCalls());
+
+        // Editing a back-dated cash entry invalidates: its old date/mode is unknown
+        service.onDomainEvent(new DomainEvent.PurchaseSaved(PurchaseEntity.builder()
+                .entryDate(LocalDate.now().minusYears(2)).paymentMode("CASH").status("UNPAID").build(), false));
+        service.getDashboardMetrics();
+        assertEquals(4 * callsAfterFirstLoad, fakeRepo.getBagsCountCalls());
+    }
+
     // Fake Repository Implementation
     static class FakePurchaseRepository implements IPurchaseRepository {
         private int bagsCount = 0;
         private double totalAmount = 0.0;
         private int pendingCheques = 0;
+        private int bagsCountCalls = 0;
+
+        public int getBagsCountCalls() {
+            return bagsCountCalls;
+        }
 
         public void setBagsCount(int count) {
             this.bagsCount = count;
@@ -55,6 +101,7 @@ public class MetricsServiceTest {
 
         @Override
         public Integer getBagsCount(LocalDate startDate, LocalDate endDate) {
+            bagsCountCalls++;
             // Return different values for different ranges just for testing diversity
             if (startDate != null && startDate.equals(endDate))
                 return bagsCount;
@@ -62,11 +109,11 @@ public class MetricsServiceTest {
         }
 
         @Override
-        public List<PurchaseEntity> findFilteredPurchases(
+        public PurchasePage findFilteredPurchases(
                 LocalDate startDate, LocalDate endDate, List<Integer> vendorIds,
                 BigDecimal minAmount, BigDecimal maxAmount, Boolean chequeIssued,
-                String searchQuery, int limit, int offset) {
-            return new ArrayList<>();
+                String searchQuery, String cursor, boolean backward, int limit) {
+            return PurchasePage.empty();
         }
 
         @Override
@@ -155,11 +202,6 @@ public class MetricsServiceTest {
         public void updateStatus(Integer id, String status) {
         }
 
-        @Override
-        public int getLastInsertedId() {
-            return 0;
-        }
-
         @Override
         public Integer countPendingClearing() {
             return 0;
@@ -0,0 +1,111 @@
+package com.lax.sme_manager.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BackupStoreTest {
+
+    private static final int CHUNK = 4096;
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2024, 3, 1, 18, 0);
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private Path write(String name, byte[] data) throws IOException {
+        return Files.write(tmp.getRoot().toPath().resolve(name), data);
+    }
+
+    @Test
+    public void testOnlyChangedChunksAreStoredAndBothSnapshotsRestore() throws IOException {
+        BackupStore store = new BackupStore(tmp.newFolder("store").toPath(), CHUNK);
+        byte[] day1 = randomBytes(10 * CHUNK + 100);
+        byte[] day2 = Arrays.copyOf(day1, day1.length + CHUNK);
+        day2[3 * CHUNK + 7] ^= 1; // one page edited, one page appended
+
+        BackupStore.IngestResult first = store.ingest(write("day1.db", day1), DAY_1);
+        BackupStore.IngestResult second = store.ingest(write("day2.db", day2), DAY_1.plusDays(1));
+        assertEquals(11, first.newChunks());
+        // Edited chunk, the old partial tail chunk now full, and the new tail
+        assertEquals(3, second.newChunks());
+
+        Path restored = tmp.getRoot().toPath().resolve("restored.db");
+        store.restore(first.snapshot().id(), restored);
+        assertArrayEquals(day1, Files.readAllBytes(restored));
+        store.restore(second.snapshot().id(), restored);
+        assertArrayEquals(day2, Files.readAllBytes(restored));
+    }
+
+    @Test
+    public void testSnapshotsInTheSameSecondKeepSeparateManifests() throws IOException {
+        BackupStore store = new BackupStore(tmp.newFolder("store").toPath(), CHUNK);
+        byte[] first = randomBytes(3 * CHUNK);
+        byte[] second = first.clone();
+        second[7] ^= 1;
+
+        BackupStore.Snapshot a = store.ingest(write("a.db", first), DAY_1).snapshot();
+        BackupStore.Snapshot b = store.ingest(write("b.db", second), DAY_1).snapshot();
+        assertNotEquals(a.id(), b.id());
+        assertEquals(2, store.listSnapshots().size());
+
+        Path restored = tmp.getRoot().toPath().resolve("restored.db");
+        store.restore(a.id(), restored);
+        assertArrayEquals(first, Files.readAllBytes(restored));
+        store.restore(b.id(), restored);
+        assertArrayEquals(second, Files.readAllBytes(restored));
+    }
+
+    @Test
+    public void testPruneKeepsChunksOfRemainingSnapshots() throws IOException {
+        BackupStore store = new BackupStore(tmp.newFolder("store").toPath(), CHUNK);
+        byte[] day1 = randomBytes(4 * CHUNK);
+        byte[] day2 = day1.clone();
+        day2[0] ^= 1;
+        store.ingest(write("day1.db", day1), DAY_1);
+        BackupStore.IngestResult second = store.ingest(write("day2.db", day2), DAY_1.plusDays(40));
+
+        // Only day 1's first chunk is unique to it
+        assertEquals(1, store.prune(DAY_1.plusDays(10)));
+        assertEquals(1, store.listSnapshots().size());
+        Path restored = tmp.getRoot().toPath().resolve("restored.db");
+        store.restore(second.snapshot().id(), restored);
+        assertArrayEquals(day2, Files.readAllBytes(restored));
+    }
+
+    @Test
+    public void testCorruptChunkFailsRestore() throws IOException {
+        Path root = tmp.newFolder("store").toPath();
+        BackupStore store = new BackupStore(root, CHUNK);
+        BackupStore.Snapshot snapshot = store.ingest(write("day1.db", randomBytes(2 * CHUNK)), DAY_1).snapshot();
+        String hash = snapshot.chunks().get(1);
+        Path chunk = root.resolve("chunks").resolve(hash.substring(0, 2)).resolve(hash);
+        Files.write(chunk, Files.readAllBytes(root.resolve("chunks").resolve(snapshot.chunks().get(0).substring(0, 2))
+                .resolve(snapshot.chunks().get(0))));
+
+        Path restored = tmp.getRoot().toPath().resolve("restored.db");
+        try {
+            store.restore(snapshot.id(), restored);
+            throw new AssertionError("restore should reject a corrupt snapshot");
+        } catch (IOException expected) {
+            assertTrue(Files.notExists(restored));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.lax.sme_manager.util;
+
+import com.lax.sme_manager.domain.Vendor;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VendorSearchIndexTest {
+
+    private static VendorSearchIndex index(String... names) {
+        VendorSearchIndex index = new VendorSearchIndex();
+        for (int i = 0; i < names.length; i++) {
+            index.add(new Vendor(i + 1, names[i]));
+        }
+        return index;
+    }
+
+    private static List<String> names(List<Vendor> vendors) {
+        return vendors.stream().map(Vendor::getName).toList();
+    }
+
+    @Test
+    public void testPrefixMatchesComeFirstAlphabetically() {
+        VendorSearchIndex index = index("Suresh Patel", "Ramesh Traders", "Patel Agro", "Ram Kumar");
+        // Whole-name prefixes, then names with a word starting with the text
+        assertEquals(List.of("Patel Agro", "Suresh Patel"), names(index.search("pat", 10)));
+        assertEquals(List.of("Ram Kumar", "Ramesh Traders"), names(index.search("RAM", 10)));
+    }
+
+    @Test
+    public void testMisspellingsStillMatch() {
+        VendorSearchIndex index = index("Ramesh Traders", "Zaveri Cotton Co", "Bharat Agro");
+        assertEquals("Ramesh Traders", names(index.search("rmesh", 10)).get(0));
+        assertEquals("Ramesh Traders", names(index.search("ramseh", 10)).get(0));
+        assertEquals("Zaveri Cotton Co", names(index.search("zavri cotn", 10)).get(0));
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void testAddIsVisibleToNextSearchAndLimitApplies() {
+        VendorSearchIndex index = index("Amit Shah", "Amit Mehta");
+        index.add(new Vendor(3, "Amit Desai"));
+        assertEquals(List.of("Amit Desai", "Amit Mehta", "Amit Shah"), names(index.search("amit", 10)));
+        assertEquals("Amit Desai", names(index.search("  AMIT   d", 10)).get(0));
+        assertEquals(2, index.search("amit", 2).size());
+    }
+}